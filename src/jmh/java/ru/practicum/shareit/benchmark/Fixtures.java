@@ -0,0 +1,90 @@
+package ru.practicum.shareit.benchmark;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Генерация наборов данных для бенчмарков и заглушки репозиториев без базы.
+ */
+final class Fixtures {
+    private static final String[] WORDS = {"дрель", "отвёртка", "лестница", "палатка", "велосипед", "пила",
+        "перфоратор", "удочка", "самокат", "проектор"};
+
+    private Fixtures() {
+    }
+
+    static User user(long id) {
+        return User.builder().id(id).name("user" + id).email("user" + id + "@mail.ru").build();
+    }
+
+    static List<Item> items(int count, User owner) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            items.add(Item.builder()
+                    .id(i)
+                    .name(WORDS[i % WORDS.length] + " " + i)
+                    .description("Описание " + WORDS[(i * 7) % WORDS.length] + " номер " + i)
+                    .available(i % 3 != 0)
+                    .owner(owner)
+                    .build());
+        }
+        return items;
+    }
+
+    static List<Booking> bookings(int count, List<Item> items, User booker) {
+        List<Booking> bookings = new ArrayList<>(count);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 1; i <= count; i++) {
+            Booking booking = new Booking();
+            booking.setId(i);
+            booking.setStart(base.plusHours(i));
+            booking.setEnd(base.plusHours(i + 1));
+            booking.setItem(items.get(i % items.size()));
+            booking.setBooker(booker);
+            booking.setStatus(BookingStatus.values()[i % BookingStatus.values().length]);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    static List<Comment> comments(int count, List<Item> items, User author) {
+        List<Comment> comments = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Comment comment = new Comment();
+            comment.setId(i);
+            comment.setText("Комментарий " + i);
+            comment.setItem(items.get(i % items.size()));
+            comment.setAuthor(author);
+            comments.add(comment);
+        }
+        return comments;
+    }
+
+    /**
+     * Реализация интерфейса, возвращающая заранее заданные значения по имени метода.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T stub(Class<T> type, Map<String, Object> results) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> type.getSimpleName() + "Stub";
+                    default -> {
+                        if (!results.containsKey(method.getName())) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        yield results.get(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.support.NoOpCacheManager;
+import ru.practicum.shareit.booking.api.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.CommentMapper;
+import ru.practicum.shareit.item.ItemServiceImpl;
+import ru.practicum.shareit.item.api.CommentRepository;
+import ru.practicum.shareit.item.api.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.api.ItemSearchEngine;
+import ru.practicum.shareit.item.api.JpaItemRepository;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemWIthCommentsDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.request.api.ItemRequestService;
+import ru.practicum.shareit.user.api.UserService;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Сборка ответов ItemServiceImpl над репозиториями-заглушками: измеряется только работа
+ * сервиса (группировка, выбор бронирований, маппинг), без обращения к базе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemServiceBenchmark {
+
+    private static final int COMMENTS_PREVIEW_SIZE = 10;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int bookings;
+
+    private ItemServiceImpl itemService;
+    private long itemId;
+    private long ownerId;
+
+    @Setup
+    public void setUp() {
+        User owner = Fixtures.user(1);
+        User booker = Fixtures.user(2);
+        List<Item> items = Fixtures.items(Math.max(1, bookings / 10), owner);
+        List<Booking> bookingList = Fixtures.bookings(bookings, items, booker);
+        List<CommentDto> newestComments = CommentMapper.toCommentDtos(Fixtures.comments(bookings, items, booker))
+                .stream()
+                .collect(Collectors.groupingBy(CommentDto::getItemId))
+                .values()
+                .stream()
+                .flatMap(itemComments -> itemComments.stream()
+                        .sorted(Comparator.comparingLong(CommentDto::getId).reversed())
+                        .limit(COMMENTS_PREVIEW_SIZE))
+                .toList();
+        Item item = items.get(0);
+        itemId = item.getId();
+        ownerId = owner.getId();
+
+        JpaItemRepository itemRepository = Fixtures.stub(JpaItemRepository.class, Map.of(
+                "findById", Optional.of(item),
+                "findAllByOwner_id", items));
+        BookingRepository bookingRepository = Fixtures.stub(BookingRepository.class, Map.of(
+                "findLastApprovedByItems", bookingList.subList(0, Math.min(items.size(), bookingList.size())),
+                "findNextApprovedByItems", bookingList.subList(0, Math.min(items.size(), bookingList.size()))));
+        CommentRepository commentRepository = Fixtures.stub(CommentRepository.class, Map.of(
+                "findPageByItem", newestComments.stream().filter(comment -> comment.getItemId() == itemId).toList(),
+                "findNewestIdsByItems", newestComments.stream().map(CommentDto::getId).toList(),
+                "findAllDtoByIdIn", newestComments));
+        ItemBookingSummaryRepository summaryRepository = Fixtures.stub(ItemBookingSummaryRepository.class, Map.of(
+                "findById", Optional.of(new ItemBookingSummary(item.getId())),
+                "findAllById", items.stream().map(each -> new ItemBookingSummary(each.getId())).toList()));
+        UserService userService = Fixtures.stub(UserService.class, Map.of("findById", owner));
+        ItemRequestService itemRequestService = Fixtures.stub(ItemRequestService.class, Map.of());
+        ItemSearchEngine searchEngine = Fixtures.stub(ItemSearchEngine.class, Map.of());
+        itemService = new ItemServiceImpl(itemRepository, bookingRepository, commentRepository, summaryRepository,
+                userService, itemRequestService, searchEngine, null, new NoOpCacheManager());
+    }
+
+    @Benchmark
+    public List<ItemWIthCommentsDto> getByOwner() {
+        return itemService.getByOwner(ownerId, tag -> false).getBody();
+    }
+
+    @Benchmark
+    public ItemWIthCommentsDto getById() {
+        return itemService.getById(itemId, tag -> false).getBody();
+    }
+}
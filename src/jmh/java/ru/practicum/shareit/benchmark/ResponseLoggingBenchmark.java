@@ -0,0 +1,58 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.logging.LogSummary;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость строки, попадающей в лог ответа Get /bookings: полный toString списка DTO
+ * против краткой сводки из LogSummary. Аллокации на запрос видны с -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseLoggingBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private List<BookingDto> bookings;
+
+    @Setup
+    public void setUp() {
+        User owner = Fixtures.user(1);
+        List<Item> items = Fixtures.items(Math.max(1, size / 10), owner);
+        bookings = Fixtures.bookings(size, items, Fixtures.user(2)).stream()
+                .map(BookingMapper::toBookingDto)
+                .toList();
+    }
+
+    @Benchmark
+    public String fullBody() {
+        return String.valueOf(bookings);
+    }
+
+    @Benchmark
+    public String summary() {
+        return LogSummary.ofList(bookings, BookingDto::getId).toString();
+    }
+}
@@ -3,13 +3,24 @@ package ru.practicum.shareit.booking;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.api.BookingService;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.event.BookingEventRelay;
+import ru.practicum.shareit.logging.LogSummary;
+import ru.practicum.shareit.user.api.UserService;
 
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping(path = "/bookings")
@@ -17,7 +28,14 @@ import java.util.List;
 @Slf4j
 public class BookingController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int EXPORT_BUFFER_SIZE = 8192;
+
     private final BookingService bookingService;
+    private final UserService userService;
+    private final BookingEventRelay bookingEventRelay;
+    private final LogSummary logSummary;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -26,10 +44,37 @@ public class BookingController {
         log.info("Пришел Post запрос /bookings с телом: {} и заголовком X-Sharer-User-Id: {}",
                 bookingCreateDto, bookerId);
         BookingDto bookingDto = bookingService.create(bookingCreateDto, bookerId);
-        log.info("Отправлен ответ Post /bookings с телом: {}", bookingDto);
+        log.info("Отправлен ответ Post /bookings с id: {}", bookingDto.getId());
+        logSummary.debugBody(log, "Post /bookings", bookingDto);
         return bookingDto;
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<BookingBatchResultDto> createBookings(@RequestBody List<BookingCreateDto> bookingCreateDtos,
+                                                      @RequestHeader("X-Sharer-User-Id") long bookerId) {
+        log.info("Пришел Post запрос /bookings/batch на создание {} бронирований с заголовком X-Sharer-User-Id: {}",
+                bookingCreateDtos.size(), bookerId);
+        List<BookingBatchResultDto> results = bookingService.createAll(bookingCreateDtos, bookerId);
+        log.info("Отправлен ответ Post /bookings/batch: {}", LogSummary.ofList(results, BookingBatchResultDto::getIndex));
+        logSummary.debugBody(log, "Post /bookings/batch", results);
+        return results;
+    }
+
+    @PatchMapping("/owner/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<BookingBatchResultDto> changeStatuses(@RequestBody List<Long> ids,
+                                                      @RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                      @RequestParam(name = "approved") boolean isApproved) {
+        log.info("Пришел Patch запрос /bookings/owner/batch с id: {}, заголовком X-Sharer-User-Id: {} " +
+                "и параметром isApproved: {}", ids, ownerId, isApproved);
+        List<BookingBatchResultDto> results = bookingService.changeStatusAll(ids, ownerId, isApproved);
+        log.info("Отправлен ответ Patch /bookings/owner/batch: {}",
+                LogSummary.ofList(results, BookingBatchResultDto::getIndex));
+        logSummary.debugBody(log, "Patch /bookings/owner/batch", results);
+        return results;
+    }
+
     @PatchMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     public BookingDto changeStatus(@PathVariable long id, @RequestHeader("X-Sharer-User-Id") long ownerId,
@@ -37,7 +82,8 @@ public class BookingController {
         log.info("Пришел Patch запрос /bookings с id: {}, заголовком X-Sharer-User-Id: {} и параметром isApproved: {}",
                 id, ownerId, isApproved);
         BookingDto bookingDto = bookingService.changeStatus(id, ownerId, isApproved);
-        log.info("Отправлен ответ Patch /bookings с телом: {}", bookingDto);
+        log.info("Отправлен ответ Patch /bookings с id: {}", bookingDto.getId());
+        logSummary.debugBody(log, "Patch /bookings", bookingDto);
         return bookingDto;
     }
 
@@ -46,25 +92,91 @@ public class BookingController {
     public BookingDto getById(@PathVariable long id, @RequestHeader("X-Sharer-User-Id") long userId) {
         log.info("Пришел Get запрос /bookings/{id} с id: {}, userId: {}", id, userId);
         BookingDto bookingDto = bookingService.getById(id, userId);
-        log.info("Отправлен ответ Get /bookings/{id} с телом: {}", bookingDto);
+        log.info("Отправлен ответ Get /bookings/{id} с id: {}", bookingDto.getId());
+        logSummary.debugBody(log, "Get /bookings/{id}", bookingDto);
         return bookingDto;
     }
 
     @GetMapping
-    public List<BookingDto> getAllByBooker(@RequestParam(required = false) State state, @RequestHeader("X-Sharer-User-Id") long bookerId) {
-        log.info("Пришел Get запрос /bookings userId: {}, state {} на получение всех бронирований арендатора",
-                bookerId, state);
-        List<BookingDto> bookings = bookingService.getAllByRole(bookerId, state, UserRole.BOOKER);
-        log.info("Отправлен ответ Get /bookings с телом: {}", bookings);
-        return bookings;
+    public ResponseEntity<List<BookingDto>> getAllByBooker(@RequestParam(required = false) State state,
+                                                           @RequestHeader("X-Sharer-User-Id") long bookerId,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer size) {
+        log.info("Пришел Get запрос /bookings userId: {}, state {}, cursor {}, size {} на получение всех " +
+                "бронирований арендатора", bookerId, state, cursor, size);
+        BookingPageDto page = bookingService.getAllByRole(bookerId, state, UserRole.BOOKER, cursor,
+                pageSize(cursor, size));
+        log.info("Отправлен ответ Get /bookings: {}", LogSummary.ofList(page.getBookings(), BookingDto::getId));
+        logSummary.debugBody(log, "Get /bookings", page.getBookings());
+        return toResponse(page);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllByOwner(@RequestParam(required = false) State state, @RequestHeader("X-Sharer-User-Id") long ownerId) {
-        log.info("Пришел Get запрос /bookings/owner ownerId: {}, state {} на получение всех бронирований владельца",
-                ownerId, state);
-        List<BookingDto> bookings = bookingService.getAllByRole(ownerId, state, UserRole.OWNER);
-        log.info("Отправлен ответ Get /bookings/owner с телом: {}", bookings);
-        return bookings;
+    public ResponseEntity<List<BookingDto>> getAllByOwner(@RequestParam(required = false) State state,
+                                                          @RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer size) {
+        log.info("Пришел Get запрос /bookings/owner ownerId: {}, state {}, cursor {}, size {} на получение всех " +
+                "бронирований владельца", ownerId, state, cursor, size);
+        BookingPageDto page = bookingService.getAllByRole(ownerId, state, UserRole.OWNER, cursor,
+                pageSize(cursor, size));
+        log.info("Отправлен ответ Get /bookings/owner: {}", LogSummary.ofList(page.getBookings(), BookingDto::getId));
+        logSummary.debugBody(log, "Get /bookings/owner", page.getBookings());
+        return toResponse(page);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByBooker(@RequestHeader("X-Sharer-User-Id") long bookerId,
+                                                                @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("Пришел Get запрос /bookings/export userId: {}, gzip {} на выгрузку истории бронирований арендатора",
+                bookerId, gzip);
+        return toExport(bookerId, UserRole.BOOKER, gzip);
+    }
+
+    @GetMapping(value = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                               @RequestParam(defaultValue = "false") boolean gzip) {
+        log.info("Пришел Get запрос /bookings/owner/export ownerId: {}, gzip {} на выгрузку истории бронирований " +
+                "владельца", ownerId, gzip);
+        return toExport(ownerId, UserRole.OWNER, gzip);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader("X-Sharer-User-Id") long userId,
+                                @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("Пришел Get запрос /bookings/events userId: {}, Last-Event-ID: {} на подписку на события бронирований",
+                userId, lastEventId);
+        userService.findById(userId);
+        return bookingEventRelay.subscribe(userId, lastEventId);
+    }
+
+    private ResponseEntity<StreamingResponseBody> toExport(long userId, UserRole role, boolean gzip) {
+        // Проверяем пользователя до начала ответа: после первой записанной строки статус уже не поменять.
+        userService.findById(userId);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+        if (!gzip) {
+            return response.body(out -> bookingService.export(userId, role, out));
+        }
+        return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+            GZIPOutputStream gzipOut = new GZIPOutputStream(out, EXPORT_BUFFER_SIZE);
+            bookingService.export(userId, role, gzipOut);
+            gzipOut.finish();
+        });
+    }
+
+    /**
+     * Без cursor и size список отдается целиком, как до появления постраничного вывода: существующие клиенты
+     * не получают молча усеченный ответ. Продолжение по cursor без size идет страницами по DEFAULT_PAGE_SIZE.
+     */
+    private static Integer pageSize(String cursor, Integer size) {
+        return size == null && cursor != null ? Integer.valueOf(DEFAULT_PAGE_SIZE) : size;
+    }
+
+    private ResponseEntity<List<BookingDto>> toResponse(BookingPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
     }
 }
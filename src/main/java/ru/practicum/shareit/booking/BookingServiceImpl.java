@@ -1,74 +1,224 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.api.BookingEventRepository;
 import ru.practicum.shareit.booking.api.BookingRepository;
 import ru.practicum.shareit.booking.api.BookingService;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.event.BookingEventMapper;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.error.exception.BadRequestException;
+import ru.practicum.shareit.error.exception.ConflictException;
 import ru.practicum.shareit.error.exception.ForbiddenException;
 import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.item.api.ItemAvailabilityService;
+import ru.practicum.shareit.item.api.ItemBookingSummaryRepository;
 import ru.practicum.shareit.item.api.ItemService;
+import ru.practicum.shareit.item.api.JpaItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.api.UserService;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.KeysetCursor;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 @Service
 @Slf4j
+@Timed(value = "shareit.service", histogram = true)
 public class BookingServiceImpl implements BookingService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int EXPORT_FLUSH_ROWS = Integer.parseInt(BookingRepository.EXPORT_FETCH_SIZE);
+
     private final BookingRepository bookingRepository;
+    private final BookingEventRepository bookingEventRepository;
     private final UserService userService;
     private final ItemService itemService;
+    private final JpaItemRepository itemRepository;
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final ItemAvailabilityService itemAvailabilityService;
+    private final MeterRegistry meterRegistry;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     @Override
+    @Transactional
     public BookingDto create(BookingCreateDto bookingCreateDto, long bookerId) {
         User booker = userService.findById(bookerId);
         Item item = itemService.findById(bookingCreateDto.getItemId());
-        if (!item.isAvailable()) {
-            log.error("Вещь с id = {} недоступна для бронирования", item.getId());
-            throw new BadRequestException("Вещь недоступна для бронирования");
-        }
-        LocalDateTime start = bookingCreateDto.getStart();
-        LocalDateTime end = bookingCreateDto.getEnd();
-        if (start.isEqual(end)) {
-            log.error("Совпадение даты начала {} и конца {} бронирования", start, end);
-            throw new BadRequestException("Дата начала и окончания бронирования не могут совпадать");
+        validateNewBooking(item, bookingCreateDto.getStart(), bookingCreateDto.getEnd());
+        Booking booking = BookingMapper.toBooking(bookingCreateDto, booker, BookingStatus.WAITING, item);
+        Booking saved = bookingRepository.save(booking);
+        summaryRepository.addBookings(item.getId(), 1);
+        bookingEventRepository.save(BookingEventMapper.toBookingEvent(saved));
+        itemAvailabilityService.evict(List.of(item.getId()));
+        return BookingMapper.toBookingDto(saved);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> createAll(List<BookingCreateDto> bookingCreateDtos, long bookerId) {
+        checkBatchSize(bookingCreateDtos.size());
+        User booker = userService.findById(bookerId);
+        // Элементы проверяются до загрузки вещей: в запрос по id попадают только id корректных элементов
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingCreateDtos.size());
+        Map<Integer, BookingCreateDto> valid = new LinkedHashMap<>();
+        for (int i = 0; i < bookingCreateDtos.size(); i++) {
+            BookingCreateDto bookingCreateDto = bookingCreateDtos.get(i);
+            String error = validateBatchElement(bookingCreateDto);
+            if (error != null) {
+                results.add(BookingBatchResultDto.failure(i, null, error));
+                continue;
+            }
+            valid.put(i, bookingCreateDto);
+            results.add(null);
         }
-        if (bookingCreateDto.getStart().isAfter(bookingCreateDto.getEnd())) {
-            log.error("Дата начала {} позже даты конца {} бронирования", start, end);
-            throw new BadRequestException("Дата начала не может быть позже даты окончания бронирования");
+        Set<Long> itemIds = valid.values().stream()
+                .map(BookingCreateDto::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        Map<Integer, Booking> accepted = new LinkedHashMap<>();
+        for (Map.Entry<Integer, BookingCreateDto> entry : valid.entrySet()) {
+            int index = entry.getKey();
+            BookingCreateDto bookingCreateDto = entry.getValue();
+            try {
+                Item item = items.get(bookingCreateDto.getItemId());
+                if (item == null) {
+                    throw new NotFoundException(String.format("Вещь с id %d не найдена", bookingCreateDto.getItemId()));
+                }
+                validateNewBooking(item, bookingCreateDto.getStart(), bookingCreateDto.getEnd());
+                accepted.put(index, BookingMapper.toBooking(bookingCreateDto, booker, BookingStatus.WAITING, item));
+            } catch (BadRequestException | NotFoundException | ConflictException e) {
+                results.set(index, BookingBatchResultDto.failure(index, null, e.getMessage()));
+            }
         }
-        Booking booking = BookingMapper.toBooking(bookingCreateDto, booker, BookingStatus.WAITING, item);
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        bookingRepository.saveAll(accepted.values());
+        Map<Long, Long> createdByItem = countByItem(accepted.values(), booking -> 1L);
+        createdByItem.forEach(summaryRepository::addBookings);
+        itemAvailabilityService.evict(createdByItem.keySet());
+        bookingEventRepository.saveAll(accepted.values().stream()
+                .map(BookingEventMapper::toBookingEvent)
+                .toList());
+        accepted.forEach((index, booking) ->
+                results.set(index, BookingBatchResultDto.success(index, BookingMapper.toBookingDto(booking))));
+        return results;
     }
 
     @Override
+    @Transactional
     public BookingDto changeStatus(long id, long ownerId, boolean isApproved) {
         Booking existed = findById(id);
         Item item = existed.getItem();
-        if (item.getOwner().getId() != ownerId) {
-            log.error("Доступ запрещён: Пользователь с id = {} не является владельцем вещи c id = {}",
-                    ownerId, item.getId());
-            throw new ForbiddenException(String.format("Пользователь с id = %d не является владельцем вещи c id = %d",
-                    ownerId, item.getId()));
+        checkOwner(item, ownerId);
+        if (isApproved) {
+            itemRepository.findByIdForUpdate(item.getId());
+            checkNoApprovedOverlap(item.getId(), existed.getId(), existed.getStart(), existed.getEnd());
+        }
+        BookingStatus status = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        long approvedDelta = approvedDelta(existed.getStatus(), status);
+        existed.setStatus(status);
+        Booking saved = bookingRepository.save(existed);
+        // Вызывается и при нулевом изменении: переход WAITING -> REJECTED освобождает интервал в календаре,
+        // а закэшированный календарь сверяется с ревизией сводки.
+        summaryRepository.addApproved(item.getId(), approvedDelta);
+        bookingEventRepository.save(BookingEventMapper.toBookingEvent(saved));
+        itemAvailabilityService.evict(List.of(item.getId()));
+        return BookingMapper.toBookingDto(saved);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> changeStatusAll(List<Long> ids, long ownerId, boolean isApproved) {
+        checkBatchSize(ids.size());
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdIn(ids.stream()
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        if (isApproved) {
+            itemRepository.findAllByIdInForUpdate(bookings.values().stream()
+                    .map(booking -> booking.getItem().getId())
+                    .collect(Collectors.toSet()));
+        }
+
+        List<BookingBatchResultDto> results = new ArrayList<>(ids.size());
+        Map<Integer, Booking> accepted = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results.add(BookingBatchResultDto.failure(i, null, "Нужно указать id бронирования"));
+                continue;
+            }
+            Booking booking = bookings.get(id);
+            try {
+                if (booking == null) {
+                    throw new NotFoundException(String.format("Бронирование с id %d не найдено", id));
+                }
+                checkOwner(booking.getItem(), ownerId);
+                if (isApproved) {
+                    checkNoApprovedOverlap(booking.getItem().getId(), id, booking.getStart(), booking.getEnd());
+                    checkNoOverlapWithinBatch(booking, accepted.values());
+                }
+                accepted.put(i, booking);
+                results.add(null);
+            } catch (NotFoundException | ForbiddenException | ConflictException e) {
+                results.add(BookingBatchResultDto.failure(i, id, e.getMessage()));
+            }
         }
-        existed.setStatus(isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return BookingMapper.toBookingDto(bookingRepository.save(existed));
+        BookingStatus status = isApproved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        Map<Long, Long> approvedDeltas = countByItem(accepted.values(),
+                booking -> approvedDelta(booking.getStatus(), status));
+        accepted.values().forEach(booking -> booking.setStatus(status));
+        bookingRepository.saveAll(accepted.values());
+        approvedDeltas.forEach(summaryRepository::addApproved);
+        itemAvailabilityService.evict(approvedDeltas.keySet());
+        bookingEventRepository.saveAll(accepted.values().stream()
+                .distinct()
+                .map(BookingEventMapper::toBookingEvent)
+                .toList());
+        accepted.forEach((index, booking) ->
+                results.set(index, BookingBatchResultDto.success(index, BookingMapper.toBookingDto(booking))));
+        return results;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookingDto getById(long id, long userId) {
         Booking booking = findById(id);
         Item item = booking.getItem();
@@ -83,44 +233,91 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getAllByRole(long userId, State state, UserRole role) {
+    @Transactional(readOnly = true)
+    public BookingPageDto getAllByRole(long userId, State state, UserRole role, String cursor, Integer size) {
+        State effectiveState = state == null ? State.ALL : state;
+        return Timer.builder("shareit.bookings.list")
+                .description("Booking list queries by state and role")
+                .tag("state", effectiveState.name())
+                .tag("role", role.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(() -> findPage(userId, effectiveState, role, cursor, size));
+    }
+
+    private BookingPageDto findPage(long userId, State state, UserRole role, String cursor, Integer size) {
 
         userService.findById(userId);
 
-        if (state == null) {
-            state = State.ALL;
-        }
-
-        List<Booking> bookings = new ArrayList<>();
-        switch (state) {
-            case ALL -> bookings = (role == UserRole.OWNER)
-                    ? bookingRepository.findAllByItemOwnerId(userId)
-                    : bookingRepository.findAllByBooker_Id(userId);
-            case FUTURE -> bookings = (role == UserRole.OWNER)
-                    ? bookingRepository.findFutureByItemOwner(userId, LocalDateTime.now())
-                    : bookingRepository.findAllByBooker_IdAndStatusEqualsAndStartIsAfter(userId,
-                    BookingStatus.APPROVED, LocalDateTime.now(), Sort.by(Sort.Direction.DESC, "start"));
-            case CURRENT -> bookings = (role == UserRole.OWNER)
-                    ? bookingRepository.findCurrentByItemOwner(userId, LocalDateTime.now(),
-                    Sort.by(Sort.Direction.DESC, "start"))
-                    : bookingRepository.findCurrentByBooker(userId, LocalDateTime.now(),
-                    Sort.by(Sort.Direction.DESC, "start"));
-            case PAST -> bookings = (role == UserRole.OWNER)
-                    ? bookingRepository.findPastByItemOwner(userId, LocalDateTime.now())
-                    : bookingRepository.findAllByBooker_IdAndStatusEqualsAndEndIsBefore(userId,
-                    BookingStatus.APPROVED, LocalDateTime.now(), Sort.by(Sort.Direction.DESC, "end"));
-            case WAITING -> bookings = (role == UserRole.OWNER)
-                    ? bookingRepository.findByOwnerAndStatus(userId, BookingStatus.WAITING)
-                    : bookingRepository.findAllByBooker_IdAndStatusEquals(userId, BookingStatus.WAITING);
-            case REJECTED -> bookings = (role == UserRole.OWNER)
-                    ? bookingRepository.findByOwnerAndStatus(userId, BookingStatus.REJECTED)
-                    : bookingRepository.findAllByBooker_IdAndStatusEquals(userId, BookingStatus.REJECTED);
+        if (size != null && (size <= 0 || size > MAX_PAGE_SIZE)) {
+            log.error("Недопустимый размер страницы: {}", size);
+            throw new BadRequestException(String.format("Размер страницы должен быть от 1 до %d", MAX_PAGE_SIZE));
         }
-        return bookings.stream()
+
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        LocalDateTime cursorDate = position.key();
+        long cursorId = position.id();
+        Limit limit = size == null ? Limit.unlimited() : Limit.of(size);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Booking> bookings = switch (state) {
+            case ALL -> (role == UserRole.OWNER)
+                    ? bookingRepository.findAllByItemOwner(userId, cursorDate, cursorId, limit)
+                    : bookingRepository.findAllByBooker(userId, cursorDate, cursorId, limit);
+            case FUTURE -> (role == UserRole.OWNER)
+                    ? bookingRepository.findFutureByItemOwner(userId, now, cursorDate, cursorId, limit)
+                    : bookingRepository.findFutureByBooker(userId, now, cursorDate, cursorId, limit);
+            case CURRENT -> (role == UserRole.OWNER)
+                    ? bookingRepository.findCurrentByItemOwner(userId, now, cursorDate, cursorId, limit)
+                    : bookingRepository.findCurrentByBooker(userId, now, cursorDate, cursorId, limit);
+            case PAST -> (role == UserRole.OWNER)
+                    ? bookingRepository.findPastByItemOwner(userId, now, cursorDate, cursorId, limit)
+                    : bookingRepository.findPastByBooker(userId, now, cursorDate, cursorId, limit);
+            case WAITING -> (role == UserRole.OWNER)
+                    ? bookingRepository.findByOwnerAndStatus(userId, BookingStatus.WAITING, cursorDate, cursorId, limit)
+                    : bookingRepository.findByBookerAndStatus(userId, BookingStatus.WAITING, cursorDate, cursorId, limit);
+            case REJECTED -> (role == UserRole.OWNER)
+                    ? bookingRepository.findByOwnerAndStatus(userId, BookingStatus.REJECTED, cursorDate, cursorId, limit)
+                    : bookingRepository.findByBookerAndStatus(userId, BookingStatus.REJECTED, cursorDate, cursorId, limit);
+        };
+
+        String nextCursor = null;
+        if (size != null && bookings.size() == size) {
+            Booking last = bookings.get(bookings.size() - 1);
+            LocalDateTime key = (state == State.PAST) ? last.getEnd() : last.getStart();
+            nextCursor = new KeysetCursor(key, last.getId()).encode();
+        }
+        return new BookingPageDto(bookings.stream()
                 .map(BookingMapper::toBookingDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), nextCursor);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void export(long userId, UserRole role, OutputStream out) {
+        userService.findById(userId);
+        long written = 0;
+        try (Stream<Booking> bookings = role == UserRole.OWNER
+                ? bookingRepository.streamAllByItemOwner(userId)
+                : bookingRepository.streamAllByBooker(userId)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(BookingMapper.toBookingDto(iterator.next())));
+                out.write('\n');
+                if (++written % EXPORT_FLUSH_ROWS == 0) {
+                    out.flush();
+                    // Уже выгруженные строки больше не нужны: не даём контексту персистентности расти вместе с историей.
+                    entityManager.clear();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            log.warn("Выгрузка бронирований пользователя {} прервана после {} строк: {}", userId, written,
+                    e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+        log.info("Выгружено {} бронирований пользователя {} в роли {}", written, userId, role);
+    }
 
     @Override
     public Booking findById(long id) {
@@ -129,4 +326,84 @@ public class BookingServiceImpl implements BookingService {
             return new NotFoundException(String.format("Бронирование с id %d не найдено", id));
         });
     }
+
+    private void checkNoApprovedOverlap(long itemId, long bookingId, LocalDateTime start, LocalDateTime end) {
+        if (bookingRepository.existsApprovedOverlap(itemId, bookingId, start, end)) {
+            log.error("Вещь с id = {} уже забронирована на период с {} по {}", itemId, start, end);
+            throw new ConflictException(String.format("Вещь с id = %d уже забронирована на период с %s по %s",
+                    itemId, start, end));
+        }
+    }
+
+    private void validateNewBooking(Item item, LocalDateTime start, LocalDateTime end) {
+        if (!item.isAvailable()) {
+            log.error("Вещь с id = {} недоступна для бронирования", item.getId());
+            throw new BadRequestException("Вещь недоступна для бронирования");
+        }
+        if (start.isEqual(end)) {
+            log.error("Совпадение даты начала {} и конца {} бронирования", start, end);
+            throw new BadRequestException("Дата начала и окончания бронирования не могут совпадать");
+        }
+        if (start.isAfter(end)) {
+            log.error("Дата начала {} позже даты конца {} бронирования", start, end);
+            throw new BadRequestException("Дата начала не может быть позже даты окончания бронирования");
+        }
+        checkNoApprovedOverlap(item.getId(), 0, start, end);
+    }
+
+    private void checkOwner(Item item, long ownerId) {
+        if (item.getOwner().getId() != ownerId) {
+            log.error("Доступ запрещён: Пользователь с id = {} не является владельцем вещи c id = {}",
+                    ownerId, item.getId());
+            throw new ForbiddenException(String.format("Пользователь с id = %d не является владельцем вещи c id = %d",
+                    ownerId, item.getId()));
+        }
+    }
+
+    private void checkNoOverlapWithinBatch(Booking booking, Collection<Booking> accepted) {
+        for (Booking other : accepted) {
+            if (other.getId() != booking.getId() && other.getItem().getId() == booking.getItem().getId()
+                    && other.getStart().isBefore(booking.getEnd()) && other.getEnd().isAfter(booking.getStart())) {
+                log.error("Бронирования с id = {} и id = {} одной вещи пересекаются", other.getId(), booking.getId());
+                throw new ConflictException(String.format("Бронирование с id = %d пересекается с бронированием " +
+                        "с id = %d из того же запроса", booking.getId(), other.getId()));
+            }
+        }
+    }
+
+    private static long approvedDelta(BookingStatus from, BookingStatus to) {
+        if (from == to) {
+            return 0;
+        }
+        if (to == BookingStatus.APPROVED) {
+            return 1;
+        }
+        return from == BookingStatus.APPROVED ? -1 : 0;
+    }
+
+    /**
+     * Суммы по вещам в порядке id: строки сводки обновляются в одном порядке во всех транзакциях,
+     * поэтому пересекающиеся пакеты не взаимоблокируются. Повтор одного бронирования в пакете учитывается один раз.
+     */
+    private static Map<Long, Long> countByItem(Collection<Booking> bookings, ToLongFunction<Booking> value) {
+        return bookings.stream()
+                .distinct()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId(), TreeMap::new,
+                        Collectors.summingLong(value)));
+    }
+
+    private String validateBatchElement(BookingCreateDto bookingCreateDto) {
+        if (bookingCreateDto == null) {
+            return "Элемент пакета не может быть пустым";
+        }
+        Set<ConstraintViolation<BookingCreateDto>> violations = validator.validate(bookingCreateDto);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private void checkBatchSize(int size) {
+        if (size == 0 || size > MAX_BATCH_SIZE) {
+            log.error("Недопустимый размер пакета: {}", size);
+            throw new BadRequestException(String.format("Размер пакета должен быть от 1 до %d", MAX_BATCH_SIZE));
+        }
+    }
 }
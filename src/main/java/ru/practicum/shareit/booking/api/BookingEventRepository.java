@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.api;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookingEventRepository extends JpaRepository<BookingEvent, Long> {
+    List<BookingEvent> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    Optional<BookingEvent> findTopByOrderByIdDesc();
+
+    @Query("select e from BookingEvent e where (e.bookerId = :userId or e.ownerId = :userId) and e.id > :lastId " +
+            "order by e.id")
+    List<BookingEvent> findForUser(@Param("userId") long userId, @Param("lastId") long lastId, Limit limit);
+
+    @Modifying
+    @Query("delete from BookingEvent e where e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
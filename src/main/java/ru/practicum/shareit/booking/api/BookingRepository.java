@@ -1,52 +1,164 @@
 package ru.practicum.shareit.booking.api;
 
-import org.springframework.data.domain.Sort;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingDateDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
+/**
+ * Списочные запросы постраничные по ключу (keyset): страница начинается строго после пары
+ * (cursorDate, cursorId) в порядке сортировки, OFFSET не используется.
+ */
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBooker_Id(long bookerId);
+    String EXPORT_FETCH_SIZE = "500";
 
-    List<Booking> findAllByBooker_IdAndStatusEquals(long bookerId, BookingStatus status);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b where b.booker.id = :bookerId " +
+            "AND (b.start < :cursorDate OR (b.start = :cursorDate AND b.id < :cursorId)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByBooker(@Param("bookerId") long bookerId, @Param("cursorDate") LocalDateTime cursorDate,
+                                  @Param("cursorId") long cursorId, Limit limit);
 
-    List<Booking> findAllByBooker_IdAndStatusEqualsAndEndIsBefore(long bookerId, BookingStatus status, LocalDateTime now, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b where b.booker.id = :bookerId AND b.status = :status " +
+            "AND (b.start < :cursorDate OR (b.start = :cursorDate AND b.id < :cursorId)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByBookerAndStatus(@Param("bookerId") long bookerId, @Param("status") BookingStatus status,
+                                        @Param("cursorDate") LocalDateTime cursorDate,
+                                        @Param("cursorId") long cursorId, Limit limit);
 
-    List<Booking> findAllByBooker_IdAndStatusEqualsAndStartIsAfter(
-            long bookerId, BookingStatus status, LocalDateTime localDateTime, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b where b.booker.id = :bookerId AND b.status = 'APPROVED' AND b.end < :now " +
+            "AND (b.end < :cursorDate OR (b.end = :cursorDate AND b.id < :cursorId)) " +
+            "ORDER BY b.end DESC, b.id DESC")
+    List<Booking> findPastByBooker(@Param("bookerId") long bookerId, @Param("now") LocalDateTime now,
+                                   @Param("cursorDate") LocalDateTime cursorDate,
+                                   @Param("cursorId") long cursorId, Limit limit);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b where b.booker.id = :bookerId AND b.status = 'APPROVED' AND b.start > :now " +
+            "AND (b.start < :cursorDate OR (b.start = :cursorDate AND b.id < :cursorId)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findFutureByBooker(@Param("bookerId") long bookerId, @Param("now") LocalDateTime now,
+                                     @Param("cursorDate") LocalDateTime cursorDate,
+                                     @Param("cursorId") long cursorId, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("select b from Booking b where b.booker.id = :bookerId AND b.status = 'APPROVED' " +
-            "AND b.start <= :now AND b.end >= :now")
-    List<Booking> findCurrentByBooker(@Param("bookerId") long ownerId, @Param("now") LocalDateTime now, Sort sort);
+            "AND b.start <= :now AND b.end >= :now " +
+            "AND (b.start < :cursorDate OR (b.start = :cursorDate AND b.id < :cursorId)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findCurrentByBooker(@Param("bookerId") long bookerId, @Param("now") LocalDateTime now,
+                                      @Param("cursorDate") LocalDateTime cursorDate,
+                                      @Param("cursorId") long cursorId, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("select b from Booking b where b.booker.id = :bookerId ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamAllByBooker(@Param("bookerId") long bookerId);
 
-    @Query("select b from Booking b where b.item.owner.id = :ownerId")
-    List<Booking> findAllByItemOwnerId(@Param("ownerId") long ownerId);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("select b from Booking b where b.item.owner.id = :ownerId ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamAllByItemOwner(@Param("ownerId") long ownerId);
 
-    @Query("select b from Booking b where b.item.owner.id = :ownerId AND b.status = :status")
-    List<Booking> findByOwnerAndStatus(@Param("ownerId") long ownerId, @Param("status") BookingStatus status);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b where b.item.owner.id = :ownerId " +
+            "AND (b.start < :cursorDate OR (b.start = :cursorDate AND b.id < :cursorId)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findAllByItemOwner(@Param("ownerId") long ownerId, @Param("cursorDate") LocalDateTime cursorDate,
+                                     @Param("cursorId") long cursorId, Limit limit);
 
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId " +
-            "AND b.status = 'APPROVED' AND b.end < :now ORDER BY b.end DESC")
-    List<Booking> findPastByItemOwner(
-            @Param("ownerId") long ownerId, @Param("now") LocalDateTime now);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b where b.item.owner.id = :ownerId AND b.status = :status " +
+            "AND (b.start < :cursorDate OR (b.start = :cursorDate AND b.id < :cursorId)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findByOwnerAndStatus(@Param("ownerId") long ownerId, @Param("status") BookingStatus status,
+                                       @Param("cursorDate") LocalDateTime cursorDate,
+                                       @Param("cursorId") long cursorId, Limit limit);
 
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b where b.item.owner.id = :ownerId AND b.status = 'APPROVED' AND b.end < :now " +
+            "AND (b.end < :cursorDate OR (b.end = :cursorDate AND b.id < :cursorId)) " +
+            "ORDER BY b.end DESC, b.id DESC")
+    List<Booking> findPastByItemOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now,
+                                      @Param("cursorDate") LocalDateTime cursorDate,
+                                      @Param("cursorId") long cursorId, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
     @Query("select b from Booking b where b.item.owner.id = :ownerId AND b.status = 'APPROVED' " +
-            "AND b.start <= :now AND b.end >= :now")
-    List<Booking> findCurrentByItemOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now, Sort sort);
+            "AND b.start <= :now AND b.end >= :now " +
+            "AND (b.start < :cursorDate OR (b.start = :cursorDate AND b.id < :cursorId)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findCurrentByItemOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now,
+                                         @Param("cursorDate") LocalDateTime cursorDate,
+                                         @Param("cursorId") long cursorId, Limit limit);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Query("select b from Booking b where b.item.owner.id = :ownerId AND b.status = 'APPROVED' AND b.start > :now " +
+            "AND (b.start < :cursorDate OR (b.start = :cursorDate AND b.id < :cursorId)) " +
+            "ORDER BY b.start DESC, b.id DESC")
+    List<Booking> findFutureByItemOwner(@Param("ownerId") long ownerId, @Param("now") LocalDateTime now,
+                                        @Param("cursorDate") LocalDateTime cursorDate,
+                                        @Param("cursorId") long cursorId, Limit limit);
 
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId AND b.status = 'APPROVED'" +
-            " AND b.start > :now ORDER BY b.start DESC")
-    List<Booking> findFutureByItemOwner(
-            long ownerId, LocalDateTime now);
+    /**
+     * Текущее одобренное бронирование каждой из вещей: началось до now и ещё не закончилось,
+     * при нескольких - с самой поздней датой окончания.
+     */
+    @Query("select b from Booking b where b.item.id in :itemIds AND b.status = 'APPROVED' " +
+            "AND b.start < :now AND b.end > :now " +
+            "AND b.end = (select max(o.end) from Booking o where o.item.id = b.item.id " +
+            "AND o.status = 'APPROVED' AND o.start < :now AND o.end > :now)")
+    List<Booking> findLastApprovedByItems(@Param("itemIds") Set<Long> itemIds, @Param("now") LocalDateTime now);
 
-    List<Booking> findAllByItem_IdIn(Set<Long> itemId);
+    /**
+     * Ближайшее будущее одобренное бронирование каждой из вещей.
+     */
+    @Query("select b from Booking b where b.item.id in :itemIds AND b.status = 'APPROVED' AND b.start > :now " +
+            "AND b.start = (select min(o.start) from Booking o where o.item.id = b.item.id " +
+            "AND o.status = 'APPROVED' AND o.start > :now)")
+    List<Booking> findNextApprovedByItems(@Param("itemIds") Set<Long> itemIds, @Param("now") LocalDateTime now);
+
+    /**
+     * Есть ли у вещи одобренное бронирование, пересекающееся с интервалом [start, end),
+     * кроме бронирования excludedId.
+     */
+    @Query("select case when count(b) > 0 then true else false end from Booking b " +
+            "where b.item.id = :itemId AND b.id <> :excludedId AND b.status = 'APPROVED' " +
+            "AND b.start < :end AND b.end > :start")
+    boolean existsApprovedOverlap(@Param("itemId") long itemId, @Param("excludedId") long excludedId,
+                                  @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Интервалы одобренных и ожидающих подтверждения бронирований вещи, заканчивающихся после since,
+     * в порядке начала.
+     */
+    @Query("select new ru.practicum.shareit.booking.dto.BookingDateDto(b.start, b.end) from Booking b " +
+            "where b.item.id = :itemId AND b.status in ('APPROVED', 'WAITING') AND b.end > :since " +
+            "ORDER BY b.start")
+    List<BookingDateDto> findBusyIntervals(@Param("itemId") long itemId, @Param("since") LocalDateTime since);
 
     Optional<Booking> findByBooker_IdAndItem_Id(long bookerId, long itemId);
+
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findAllByIdIn(Collection<Long> ids);
 }
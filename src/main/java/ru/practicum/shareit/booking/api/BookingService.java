@@ -2,20 +2,37 @@ package ru.practicum.shareit.booking.api;
 
 import ru.practicum.shareit.booking.State;
 import ru.practicum.shareit.booking.UserRole;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.model.Booking;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface BookingService {
     BookingDto create(BookingCreateDto bookingCreateDto, long bookerId);
 
+    List<BookingBatchResultDto> createAll(List<BookingCreateDto> bookingCreateDtos, long bookerId);
+
     BookingDto changeStatus(long id, long ownerId, boolean isApproved);
 
+    List<BookingBatchResultDto> changeStatusAll(List<Long> ids, long ownerId, boolean isApproved);
+
     BookingDto getById(long id, long userId);
 
-    List<BookingDto> getAllByRole(long userId, State state, UserRole role);
+    /**
+     * @param cursor позиция, с которой продолжить, из nextCursor предыдущей страницы; null - с начала
+     * @param size   размер страницы; null - все бронирования без разбиения на страницы (nextCursor = null)
+     */
+    BookingPageDto getAllByRole(long userId, State state, UserRole role, String cursor, Integer size);
+
+    /**
+     * Пишет всю историю бронирований пользователя в {@code out} в формате NDJSON (один BookingDto на строку),
+     * читая строки из БД потоком, без загрузки всей истории в память.
+     */
+    void export(long userId, UserRole role, OutputStream out);
 
     Booking findById(long id);
 }
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Результат обработки одного элемента пакетного запроса: index - позиция элемента в запросе,
+ * при успехе заполнено booking, при ошибке - error.
+ */
+@Data
+@AllArgsConstructor
+public class BookingBatchResultDto {
+    private int index;
+    private Long id;
+    private BookingDto booking;
+    private String error;
+
+    public static BookingBatchResultDto success(int index, BookingDto booking) {
+        return new BookingBatchResultDto(index, booking.getId(), booking, null);
+    }
+
+    public static BookingBatchResultDto failure(int index, Long id, String error) {
+        return new BookingBatchResultDto(index, id, null, error);
+    }
+}
@@ -15,5 +15,5 @@ public class BookingCreateDto {
     @FutureOrPresent
     private LocalDateTime end;
     @NotNull
-    private long itemId;
+    private Long itemId;
 }
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.time.LocalDateTime;
+
+@Data
+public class BookingEventDto {
+    private long id;
+    private long bookingId;
+    private long itemId;
+    private long bookerId;
+    private BookingStatus status;
+    private LocalDateTime createdAt;
+}
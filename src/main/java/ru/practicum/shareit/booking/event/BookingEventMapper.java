@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.event;
+
+import ru.practicum.shareit.booking.dto.BookingEventDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.time.LocalDateTime;
+
+public class BookingEventMapper {
+    public static BookingEvent toBookingEvent(Booking booking) {
+        BookingEvent event = new BookingEvent();
+        event.setBookingId(booking.getId());
+        event.setItemId(booking.getItem().getId());
+        event.setBookerId(booking.getBooker().getId());
+        event.setOwnerId(booking.getItem().getOwner().getId());
+        event.setStatus(booking.getStatus());
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+
+    public static BookingEventDto toBookingEventDto(BookingEvent event) {
+        BookingEventDto eventDto = new BookingEventDto();
+        eventDto.setId(event.getId());
+        eventDto.setBookingId(event.getBookingId());
+        eventDto.setItemId(event.getItemId());
+        eventDto.setBookerId(event.getBookerId());
+        eventDto.setStatus(event.getStatus());
+        eventDto.setCreatedAt(event.getCreatedAt());
+        return eventDto;
+    }
+}
@@ -0,0 +1,177 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.api.BookingEventRepository;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Читает outbox booking_events и рассылает события SSE-подписчикам этого узла (арендатору и владельцу вещи).
+ * Каждый узел ведет свою позицию в памяти и начинает с конца таблицы; пропущенное переподключившийся клиент
+ * получает из БД по Last-Event-ID.
+ * <p>
+ * id событий выдаются при вставке, а видны после коммита, поэтому меньший id может появиться позже большего.
+ * Позиция (watermark) сдвигается только за события старше shareit.booking-events.commit-grace, а события
+ * выше нее запоминаются, чтобы не отправить их дважды. Транзакция дольше этого окна может потерять живую
+ * доставку своего события (в БД и при переподключении оно останется).
+ * <p>
+ * Outbox читается только с основной БД: все чтения идут через transactionTemplate (readOnly = false),
+ * иначе read-only транзакция ушла бы на реплику, и ее отставание больше commit-grace теряло бы события.
+ */
+@Component
+@Slf4j
+public class BookingEventRelay {
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPLAY = 1000;
+
+    private final BookingEventRepository bookingEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration commitGrace;
+    private final Duration emitterTimeout;
+    private final Duration retention;
+
+    private final Map<Long, Set<BookingEventSubscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Set<Long> publishedAboveWatermark = new HashSet<>();
+    private volatile long watermark = -1;
+
+    public BookingEventRelay(BookingEventRepository bookingEventRepository, TransactionTemplate transactionTemplate,
+                             @Value("${shareit.booking-events.commit-grace}") Duration commitGrace,
+                             @Value("${shareit.booking-events.emitter-timeout}") Duration emitterTimeout,
+                             @Value("${shareit.booking-events.retention}") Duration retention) {
+        this.bookingEventRepository = bookingEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.commitGrace = commitGrace;
+        this.emitterTimeout = emitterTimeout;
+        this.retention = retention;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        watermark = transactionTemplate.execute(status -> bookingEventRepository.findTopByOrderByIdDesc()
+                .map(BookingEvent::getId)
+                .orElse(0L));
+        log.info("Рассылка событий бронирований начата с события {}", watermark);
+    }
+
+    /**
+     * Подписка пользователя на события его бронирований и бронирований его вещей.
+     *
+     * @param lastEventId id последнего полученного события; события после него догружаются из БД
+     */
+    public SseEmitter subscribe(long userId, Long lastEventId) {
+        BookingEventSubscription subscription = new BookingEventSubscription(new SseEmitter(emitterTimeout.toMillis()));
+        SseEmitter emitter = subscription.emitter();
+        emitter.onCompletion(() -> unsubscribe(userId, subscription));
+        emitter.onTimeout(() -> unsubscribe(userId, subscription));
+        emitter.onError(e -> unsubscribe(userId, subscription));
+        subscriptions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+
+        int replayed = 0;
+        if (lastEventId != null) {
+            long cursor = lastEventId;
+            List<BookingEvent> page;
+            do {
+                long from = cursor;
+                page = transactionTemplate.execute(status ->
+                        bookingEventRepository.findForUser(userId, from, Limit.of(BATCH_SIZE)));
+                for (BookingEvent event : page) {
+                    subscription.replay(event);
+                    replayed++;
+                    cursor = event.getId();
+                }
+            } while (page.size() == BATCH_SIZE && replayed < MAX_REPLAY);
+            if (page.size() == BATCH_SIZE) {
+                // Остальное клиент дочитает, переподключившись с Last-Event-ID последнего события.
+                log.info("Пользователю {} отправлено {} пропущенных событий, подключение закрыто для догрузки",
+                        userId, replayed);
+                emitter.complete();
+                return emitter;
+            }
+        }
+        subscription.finishReplay();
+        log.info("Пользователь {} подписан на события бронирований с события {}, догружено {}",
+                userId, lastEventId, replayed);
+        return emitter;
+    }
+
+    /**
+     * Просматривает все события выше watermark страницами по BATCH_SIZE со своим курсором: если первая
+     * страница целиком состоит из еще не устоявшихся событий, watermark стоит на месте, но события за ней
+     * все равно доставляются. Каждый опрос перечитывает события за последние commit-grace.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking-events.poll-interval}")
+    public void relay() {
+        if (watermark < 0) {
+            return;
+        }
+        LocalDateTime settledBefore = LocalDateTime.now().minus(commitGrace);
+        long settled = watermark;
+        boolean settling = true;
+        long cursor = watermark;
+        List<BookingEvent> events;
+        do {
+            long from = cursor;
+            events = transactionTemplate.execute(status ->
+                    bookingEventRepository.findByIdGreaterThanOrderByIdAsc(from, Limit.of(BATCH_SIZE)));
+            for (BookingEvent event : events) {
+                if (publishedAboveWatermark.add(event.getId())) {
+                    dispatch(event);
+                }
+                if (settling && event.getCreatedAt().isBefore(settledBefore)) {
+                    settled = event.getId();
+                } else {
+                    settling = false;
+                }
+                cursor = event.getId();
+            }
+        } while (events.size() == BATCH_SIZE);
+        long newWatermark = settled;
+        publishedAboveWatermark.removeIf(id -> id <= newWatermark);
+        watermark = newWatermark;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-events.cleanup-interval}")
+    public void deleteExpired() {
+        LocalDateTime before = LocalDateTime.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> bookingEventRepository.deleteCreatedBefore(before));
+        if (deleted != null && deleted > 0) {
+            log.info("Удалено {} событий бронирований старше {}", deleted, before);
+        }
+    }
+
+    private void dispatch(BookingEvent event) {
+        publish(event.getBookerId(), event);
+        if (event.getOwnerId() != event.getBookerId()) {
+            publish(event.getOwnerId(), event);
+        }
+    }
+
+    private void publish(long userId, BookingEvent event) {
+        Set<BookingEventSubscription> userSubscriptions = subscriptions.get(userId);
+        if (userSubscriptions != null) {
+            userSubscriptions.forEach(subscription -> subscription.publish(event));
+        }
+    }
+
+    private void unsubscribe(long userId, BookingEventSubscription subscription) {
+        subscriptions.computeIfPresent(userId, (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+}
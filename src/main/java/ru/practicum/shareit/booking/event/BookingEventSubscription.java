@@ -0,0 +1,71 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Одно SSE-подключение. Пока идет догрузка пропущенных событий из БД, живые события от relay копятся
+ * в pending и отправляются после нее: порядок событий одного бронирования не нарушается.
+ * <p>
+ * Догруженное событие relay может опубликовать и позже, если еще не успел его опросить, поэтому id
+ * догруженных событий хранятся до их публикации (не больше MAX_REPLAY на подключение), и такие
+ * публикации пропускаются.
+ */
+@Slf4j
+final class BookingEventSubscription {
+    private static final String EVENT_NAME = "booking";
+
+    private final SseEmitter emitter;
+    private final List<BookingEvent> pending = new ArrayList<>();
+    private final Set<Long> replayed = new HashSet<>();
+    private boolean replaying = true;
+
+    BookingEventSubscription(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    synchronized void publish(BookingEvent event) {
+        if (replaying) {
+            pending.add(event);
+        } else if (!replayed.remove(event.getId())) {
+            send(event);
+        }
+    }
+
+    synchronized void replay(BookingEvent event) {
+        replayed.add(event.getId());
+        send(event);
+    }
+
+    synchronized void finishReplay() {
+        replaying = false;
+        for (BookingEvent event : pending) {
+            if (!replayed.remove(event.getId())) {
+                send(event);
+            }
+        }
+        pending.clear();
+    }
+    private void send(BookingEvent event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getId()))
+                    .name(EVENT_NAME)
+                    .data(BookingEventMapper.toBookingEventDto(event)));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Не удалось отправить событие {} подписчику: {}", event.getId(), e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись outbox об изменении бронирования: создается в транзакции бронирования и рассылается подписчикам
+ * {@link ru.practicum.shareit.booking.event.BookingEventRelay}.
+ */
+@Entity
+@Table(name = "booking_events")
+@Data
+@EqualsAndHashCode(of = {"id"})
+public class BookingEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_events_seq")
+    @SequenceGenerator(name = "booking_events_seq", allocationSize = 1)
+    private long id;
+    @Column(name = "booking_id")
+    private long bookingId;
+    @Column(name = "item_id")
+    private long itemId;
+    @Column(name = "booker_id")
+    private long bookerId;
+    @Column(name = "owner_id")
+    private long ownerId;
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Кэши поиска пользователей и вещей и календарей занятости вещей. Хранилище, размер и время жизни задаются свойствами
+ * spring.cache.*; spring.cache.type=none отключает кэширование.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String USERS = "users";
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+    public static final String ITEMS = "items";
+    public static final String ITEM_AVAILABILITY = "itemAvailability";
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Фоновые задачи обслуживания (проверка сводок по вещам и т.п.). Интервалы задаются свойствами shareit.*.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,15 +1,22 @@
 package ru.practicum.shareit.error;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import ru.practicum.shareit.error.exception.BadRequestException;
+import ru.practicum.shareit.error.exception.ConflictException;
 import ru.practicum.shareit.error.exception.DuplicateException;
 import ru.practicum.shareit.error.exception.ForbiddenException;
 import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.error.exception.PreconditionFailedException;
+import ru.practicum.shareit.error.exception.TooManyRequestsException;
 
 import java.util.Objects;
 
@@ -23,6 +30,16 @@ public class ErrorHandler {
                 Objects.requireNonNull(e.getBindingResult().getFieldError()).getDefaultMessage());
     }
 
+    /**
+     * Ограничения на сами параметры (размер списка импорта, элементы List&lt;@Valid ...&gt;) проверяются
+     * встроенной валидацией методов контроллера, а не привязкой тела.
+     */
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleHandlerMethodValidation(final HandlerMethodValidationException e) {
+        return new ErrorResponse("Ошибка валидации", e.getAllErrors().get(0).getDefaultMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(final BadRequestException e) {
@@ -37,6 +54,32 @@ public class ErrorHandler {
         return new ErrorResponse("Ошибка уникальности", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleConflict(final ConflictException e) {
+        return new ErrorResponse("Конфликт бронирований", e.getMessage());
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLock(final OptimisticLockingFailureException e) {
+        log.warn("Конкурентное изменение: {}", e.getMessage());
+        return new ErrorResponse("Конфликт версий", "Ресурс был изменен другим запросом, повторите попытку");
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorResponse handlePreconditionFailed(final PreconditionFailedException e) {
+        return new ErrorResponse("Версия не совпадает", e.getMessage());
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(final TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse("Превышен лимит запросов", e.getMessage()));
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleNotFound(final NotFoundException e) {
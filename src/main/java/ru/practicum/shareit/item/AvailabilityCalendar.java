@@ -0,0 +1,108 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.booking.dto.BookingDateDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Занятые интервалы одной вещи, начиная с since: бронирования слиты в непересекающиеся отрезки,
+ * упорядоченные по началу. Неизменяем, поэтому один экземпляр из кэша читается параллельно.
+ */
+final class AvailabilityCalendar {
+    private final LocalDateTime since;
+    private final long revision;
+    private final LocalDateTime[] starts;
+    private final LocalDateTime[] ends;
+
+    private AvailabilityCalendar(LocalDateTime since, long revision, LocalDateTime[] starts, LocalDateTime[] ends) {
+        this.since = since;
+        this.revision = revision;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * @param revision ревизия сводки вещи, прочитанная до бронирований
+     * @param bookings интервалы бронирований в порядке начала, могут пересекаться (WAITING не проверяются
+     *                 на пересечение)
+     */
+    static AvailabilityCalendar of(LocalDateTime since, long revision, List<BookingDateDto> bookings) {
+        LocalDateTime[] starts = new LocalDateTime[bookings.size()];
+        LocalDateTime[] ends = new LocalDateTime[bookings.size()];
+        int size = 0;
+        for (BookingDateDto booking : bookings) {
+            if (size > 0 && !booking.getStart().isAfter(ends[size - 1])) {
+                if (booking.getEnd().isAfter(ends[size - 1])) {
+                    ends[size - 1] = booking.getEnd();
+                }
+            } else {
+                starts[size] = booking.getStart();
+                ends[size] = booking.getEnd();
+                size++;
+            }
+        }
+        return new AvailabilityCalendar(since, revision, Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+    }
+
+    long revision() {
+        return revision;
+    }
+
+    boolean covers(LocalDateTime from) {
+        return !from.isBefore(since);
+    }
+
+    /**
+     * Занятые отрезки, пересекающиеся с [from, to), обрезанные по его границам.
+     */
+    List<BookingDateDto> busy(LocalDateTime from, LocalDateTime to) {
+        List<BookingDateDto> busy = new ArrayList<>();
+        for (int i = firstEndingAfter(from); i < starts.length && starts[i].isBefore(to); i++) {
+            busy.add(new BookingDateDto(max(starts[i], from), min(ends[i], to)));
+        }
+        return busy;
+    }
+
+    /**
+     * Свободные промежутки [from, to) между занятыми отрезками busy(from, to).
+     */
+    static List<BookingDateDto> free(LocalDateTime from, LocalDateTime to, List<BookingDateDto> busy) {
+        List<BookingDateDto> free = new ArrayList<>(busy.size() + 1);
+        LocalDateTime cursor = from;
+        for (BookingDateDto interval : busy) {
+            if (interval.getStart().isAfter(cursor)) {
+                free.add(new BookingDateDto(cursor, interval.getStart()));
+            }
+            cursor = interval.getEnd();
+        }
+        if (cursor.isBefore(to)) {
+            free.add(new BookingDateDto(cursor, to));
+        }
+        return free;
+    }
+
+    private int firstEndingAfter(LocalDateTime from) {
+        int low = 0;
+        int high = ends.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ends[middle].isAfter(from)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private static LocalDateTime min(LocalDateTime first, LocalDateTime second) {
+        return first.isBefore(second) ? first : second;
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.api.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingDateDto;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.error.exception.BadRequestException;
+import ru.practicum.shareit.item.api.ItemAvailabilityService;
+import ru.practicum.shareit.item.api.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.api.ItemService;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Календарь вещи строится одним запросом по индексу (item_id, status, end_date) за период от
+ * now - history и дальше, сливается в непересекающиеся отрезки и кэшируется до изменения бронирований вещи.
+ * Запросы, начинающиеся раньше закэшированного периода, считаются напрямую и в кэш не попадают.
+ * <p>
+ * Сброс после коммита не защищает от читателя, чья транзакция началась до коммита: он положит
+ * в кэш уже устаревший календарь. Поэтому календарь помечен ревизией сводки вещи, прочитанной до
+ * бронирований, и каждый запрос сверяет ее с текущей; при расхождении календарь строится заново.
+ */
+@Service
+@Slf4j
+@Timed(value = "shareit.service", histogram = true)
+public class ItemAvailabilityServiceImpl implements ItemAvailabilityService {
+
+    private final ItemService itemService;
+    private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final Cache cache;
+    private final Duration history;
+
+    public ItemAvailabilityServiceImpl(ItemService itemService, BookingRepository bookingRepository,
+                                       ItemBookingSummaryRepository summaryRepository, CacheManager cacheManager,
+                                       @Value("${shareit.item-availability.history}") Duration history) {
+        this.itemService = itemService;
+        this.bookingRepository = bookingRepository;
+        this.summaryRepository = summaryRepository;
+        this.cache = cacheManager.getCache(CacheConfig.ITEM_AVAILABILITY);
+        this.history = history;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            log.error("Некорректный период: from {} не раньше to {}", from, to);
+            throw new BadRequestException("Начало периода должно быть раньше его конца");
+        }
+        itemService.findById(itemId);
+        long revision = summaryRepository.findRevision(itemId).orElse(0L);
+        AvailabilityCalendar calendar = calendar(itemId, revision);
+        if (!calendar.covers(from)) {
+            calendar = AvailabilityCalendar.of(from, revision, bookingRepository.findBusyIntervals(itemId, from));
+        }
+        List<BookingDateDto> busy = calendar.busy(from, to);
+        return new ItemAvailabilityDto(itemId, from, to, busy, AvailabilityCalendar.free(from, to, busy));
+    }
+
+    @Override
+    public void evict(Collection<Long> itemIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            itemIds.forEach(cache::evict);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                itemIds.forEach(cache::evict);
+            }
+        });
+    }
+
+    private AvailabilityCalendar calendar(long itemId, long revision) {
+        AvailabilityCalendar cached = cache.get(itemId, AvailabilityCalendar.class);
+        if (cached != null && cached.revision() == revision) {
+            return cached;
+        }
+        LocalDateTime since = LocalDateTime.now().minus(history).truncatedTo(ChronoUnit.DAYS);
+        AvailabilityCalendar calendar = AvailabilityCalendar.of(since, revision,
+                bookingRepository.findBusyIntervals(itemId, since));
+        cache.put(itemId, calendar);
+        return calendar;
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.api.ItemBookingSummaryRepository;
+
+import java.util.List;
+
+/**
+ * Сверяет item_booking_summary с таблицами бронирований и комментариев и чинит расхождения
+ * (записи в обход сервисов, ручные правки БД). Недостающие строки сводки создаются, расходящиеся пересчитываются.
+ * <p>
+ * Пересчет строки идет под ее блокировкой: транзакция, которая уже добавила бронирование, но еще не увеличила
+ * счетчик, сделает это после нас относительным UPDATE, а уже увеличившая - закоммитится до нашего пересчета.
+ */
+@Component
+@Slf4j
+public class ItemBookingSummaryChecker {
+
+    private final ItemBookingSummaryRepository summaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter repairedCounter;
+
+    public ItemBookingSummaryChecker(ItemBookingSummaryRepository summaryRepository,
+                                     TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.summaryRepository = summaryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.repairedCounter = Counter.builder("shareit.item.summary.repaired")
+                .description("Строки item_booking_summary, созданные или пересчитанные проверкой")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${shareit.item-summary.check-initial-delay}",
+            fixedDelayString = "${shareit.item-summary.check-interval}")
+    public void checkAndRepair() {
+        Integer inserted = transactionTemplate.execute(status -> summaryRepository.insertMissing());
+        List<Long> inconsistent = transactionTemplate.execute(status -> summaryRepository.findInconsistentItemIds());
+        int repaired = 0;
+        for (Long itemId : inconsistent) {
+            Integer updated = transactionTemplate.execute(status -> {
+                summaryRepository.findByIdForUpdate(itemId);
+                return summaryRepository.recount(itemId);
+            });
+            repaired += updated;
+        }
+        if (inserted > 0 || repaired > 0) {
+            log.warn("Сводка по вещам расходилась с данными: создано строк {}, пересчитано {} (id вещей: {})",
+                    inserted, repaired, inconsistent);
+            repairedCounter.increment(inserted + repaired);
+        } else {
+            log.debug("Сводка по вещам согласована с бронированиями и комментариями");
+        }
+    }
+}
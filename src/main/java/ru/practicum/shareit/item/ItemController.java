@@ -1,13 +1,23 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.item.api.ItemAvailabilityService;
 import ru.practicum.shareit.item.api.ItemService;
 import ru.practicum.shareit.item.dto.*;
+import ru.practicum.shareit.logging.LogSummary;
+import ru.practicum.shareit.util.VersionTags;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -15,14 +25,24 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 public class ItemController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ItemService itemService;
+    private final ItemAvailabilityService itemAvailabilityService;
+    private final LogSummary logSummary;
 
     @GetMapping("/{id}")
-    public ItemWIthCommentsDto getById(@PathVariable long id) {
+    public ResponseEntity<ItemWIthCommentsDto> getById(@PathVariable long id, WebRequest request) {
         log.info("Пришел Get запрос /items/{id} с id: {}", id);
-        ItemWIthCommentsDto itemDto = itemService.getById(id);
-        log.info("Отправлен ответ Get /items/{id} с телом: {}", itemDto);
-        return itemDto;
+        TaggedDto<ItemWIthCommentsDto> tagged = itemService.getById(id, request::checkNotModified);
+        if (tagged.getBody() == null) {
+            log.info("Отправлен ответ Get /items/{id} с id: {}: не изменилась", id);
+            return null;
+        }
+        ItemWIthCommentsDto itemDto = tagged.getBody();
+        log.info("Отправлен ответ Get /items/{id} с id: {}", itemDto.getId());
+        logSummary.debugBody(log, "Get /items/{id}", itemDto);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(tagged.getTag()).body(itemDto);
     }
 
     @PostMapping
@@ -30,38 +50,94 @@ public class ItemController {
     ItemDto create(@RequestBody @Valid ItemCreateDto itemCreateDto, @RequestHeader("X-Sharer-User-Id") long ownerId) {
         log.info("Пришел Post запрос /items с телом: {} и заголовком X-Sharer-User-Id: {} ", itemCreateDto, ownerId);
         ItemDto itemDto = itemService.create(itemCreateDto, ownerId);
-        log.info("Отправлен ответ Post /items с телом: {}", itemDto);
+        log.info("Отправлен ответ Post /items с id: {}", itemDto.getId());
+        logSummary.debugBody(log, "Post /items", itemDto);
         return itemDto;
     }
 
+    @PostMapping("/import")
+    @ResponseStatus(HttpStatus.CREATED)
+    List<ItemDto> importItems(@RequestBody @Size(min = 1, max = ItemService.MAX_IMPORT_SIZE,
+                                      message = "Размер импорта должен быть от {min} до {max}")
+                              List<@Valid ItemCreateDto> itemCreateDtos,
+                              @RequestHeader("X-Sharer-User-Id") long ownerId) {
+        log.info("Пришел Post запрос /items/import на импорт {} вещей с заголовком X-Sharer-User-Id: {}",
+                itemCreateDtos.size(), ownerId);
+        List<ItemDto> imported = itemService.importAll(itemCreateDtos, ownerId);
+        log.info("Отправлен ответ Post /items/import: {}", LogSummary.ofList(imported, ItemDto::getId));
+        return imported;
+    }
+
     @PatchMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    ItemDto update(@RequestBody @Valid ItemUpdateDto itemUpdateDto, @RequestHeader("X-Sharer-User-Id") long ownerId, @PathVariable long id) {
-        log.info("Пришел Patch запрос /items/{id} с телом: {}, заголовком X-Sharer-User-Id: {} и id: {}", itemUpdateDto, ownerId, id);
-        ItemDto itemDto = itemService.update(itemUpdateDto, ownerId, id);
-        log.info("Отправлен ответ Patch /items/{id} с телом: {}", itemDto);
+    ItemDto update(@RequestBody @Valid ItemUpdateDto itemUpdateDto, @RequestHeader("X-Sharer-User-Id") long ownerId, @PathVariable long id,
+                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.info("Пришел Patch запрос /items/{id} с телом: {}, заголовком X-Sharer-User-Id: {}, If-Match: {} и id: {}",
+                itemUpdateDto, ownerId, ifMatch, id);
+        ItemDto itemDto = itemService.update(itemUpdateDto, ownerId, id, VersionTags.parseVersions(ifMatch));
+        log.info("Отправлен ответ Patch /items/{id} с id: {}", itemDto.getId());
+        logSummary.debugBody(log, "Patch /items/{id}", itemDto);
         return itemDto;
     }
 
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    List<ItemWIthCommentsDto> getByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId) {
+    ResponseEntity<List<ItemWIthCommentsDto>> getByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId,
+                                                         WebRequest request) {
         log.info("Пришел Get запрос /items с заголовком X-Sharer-User-Id: {} " +
                 "на получение списка вещей пользователя", ownerId);
-        List<ItemWIthCommentsDto> items = itemService.getByOwner(ownerId);
-        log.info("Отправлен ответ Get /items с телом: {} ", items);
-        return items;
+        TaggedDto<List<ItemWIthCommentsDto>> tagged = itemService.getByOwner(ownerId, request::checkNotModified);
+        if (tagged.getBody() == null) {
+            log.info("Отправлен ответ Get /items: список не изменился");
+            return null;
+        }
+        List<ItemWIthCommentsDto> items = tagged.getBody();
+        log.info("Отправлен ответ Get /items: {}", LogSummary.ofList(items, ItemWIthCommentsDto::getId));
+        logSummary.debugBody(log, "Get /items", items);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(tagged.getTag()).body(items);
     }
 
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    List<ItemDto> search(@RequestParam String text) {
-        log.info("Пришел Get запрос /items на поиск с телом: {}", text);
-        List<ItemDto> items = itemService.search(text);
-        log.info("Отправлен ответ Get /items с результатом поиска: {} ", items);
+    List<ItemDto> search(@RequestParam String text,
+                         @RequestParam(defaultValue = "0") int from,
+                         @RequestParam(defaultValue = "20") int size) {
+        log.info("Пришел Get запрос /items на поиск с телом: {}, from: {}, size: {}", text, from, size);
+        List<ItemDto> items = itemService.search(text, from, size);
+        log.info("Отправлен ответ Get /items/search: {}", LogSummary.ofList(items, ItemDto::getId));
+        logSummary.debugBody(log, "Get /items/search", items);
         return items;
     }
 
+    @GetMapping("/{id}/availability")
+    ItemAvailabilityDto getAvailability(@PathVariable long id,
+                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                        LocalDateTime from,
+                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                        LocalDateTime to) {
+        log.info("Пришел Get запрос /items/{id}/availability с id: {}, from: {}, to: {}", id, from, to);
+        ItemAvailabilityDto availability = itemAvailabilityService.getAvailability(id, from, to);
+        log.info("Отправлен ответ Get /items/{id}/availability с id: {}: занятых интервалов {}, свободных {}",
+                id, availability.getBusy().size(), availability.getFree().size());
+        logSummary.debugBody(log, "Get /items/{id}/availability", availability);
+        return availability;
+    }
+
+    @GetMapping("/{id}/comments")
+    ResponseEntity<List<CommentDto>> getComments(@PathVariable long id,
+                                                 @RequestParam(required = false) Long cursor,
+                                                 @RequestParam(defaultValue = "20") int size) {
+        log.info("Пришел Get запрос /items/{id}/comments с id: {}, cursor: {}, size: {}", id, cursor, size);
+        CommentPageDto page = itemService.getComments(id, cursor, size);
+        log.info("Отправлен ответ Get /items/{id}/comments: {}",
+                LogSummary.ofList(page.getComments(), CommentDto::getId));
+        logSummary.debugBody(log, "Get /items/{id}/comments", page.getComments());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getComments());
+    }
+
     @PostMapping("/{itemId}/comment")
     @ResponseStatus(HttpStatus.CREATED)
     CommentDto addComment(@RequestBody CreateCommentDto createCommentDto, @PathVariable long itemId,
@@ -69,7 +145,8 @@ public class ItemController {
         log.info("Пришел Post запрос /items/{itemId}/comment с телом: {}, заголовком X-Sharer-User-Id: {} " +
                 "и itemId: {}", createCommentDto, authorId, itemId);
         CommentDto commentDto = itemService.addComment(createCommentDto, itemId, authorId);
-        log.info("Отправлен ответ Post /items/{itemId}/comment с телом: {}", commentDto);
+        log.info("Отправлен ответ Post /items/{itemId}/comment с id: {}", commentDto.getId());
+        logSummary.debugBody(log, "Post /items/{itemId}/comment", commentDto);
         return commentDto;
     }
 
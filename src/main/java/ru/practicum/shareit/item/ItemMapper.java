@@ -5,6 +5,7 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
 
 import java.util.List;
 
@@ -15,7 +16,7 @@ public class ItemMapper {
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.isAvailable())
-                .request(item.getRequest() != null ? item.getRequest() : null)
+                .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
                 .build();
     }
 
@@ -47,7 +48,8 @@ public class ItemMapper {
     }
 
     public static ItemWIthCommentsDto toItemWIthCommentsDto(
-            Item item, List<Comment> comments, Booking bookingLast, Booking bookingNext) {
+            Item item, List<CommentDto> comments, Booking bookingLast, Booking bookingNext,
+            ItemBookingSummary summary) {
         ItemWIthCommentsDto itemWIthCommentsDto = new ItemWIthCommentsDto();
         itemWIthCommentsDto.setId(item.getId());
         itemWIthCommentsDto.setName(item.getName());
@@ -55,7 +57,10 @@ public class ItemMapper {
         itemWIthCommentsDto.setDescription(item.getDescription());
         itemWIthCommentsDto.setLastBooking(BookingMapper.toBookingDateDto(bookingLast));
         itemWIthCommentsDto.setNextBooking(BookingMapper.toBookingDateDto(bookingNext));
-        itemWIthCommentsDto.setComments(CommentMapper.toCommentDtos(comments));
+        itemWIthCommentsDto.setComments(comments);
+        itemWIthCommentsDto.setBookingCount(summary.getBookingCount());
+        itemWIthCommentsDto.setApprovedBookingCount(summary.getApprovedCount());
+        itemWIthCommentsDto.setCommentCount(summary.getCommentCount());
         return itemWIthCommentsDto;
     }
 }
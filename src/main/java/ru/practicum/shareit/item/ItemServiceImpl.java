@@ -1,64 +1,152 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.shareit.booking.api.BookingRepository;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.error.exception.BadRequestException;
 import ru.practicum.shareit.error.exception.ForbiddenException;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.item.api.CommentRepository;
+import ru.practicum.shareit.item.api.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.api.ItemSearchEngine;
 import ru.practicum.shareit.item.api.ItemService;
 import ru.practicum.shareit.item.api.JpaItemRepository;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.request.api.ItemRequestService;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.api.UserService;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.VersionTags;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "shareit.service", histogram = true)
 public class ItemServiceImpl implements ItemService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int IMPORT_CHUNK_SIZE = 50;
+    private static final int COMMENTS_PREVIEW_SIZE = 10;
+
     private final JpaItemRepository itemRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemBookingSummaryRepository summaryRepository;
     private final UserService userService;
+    private final ItemRequestService itemRequestService;
+    private final ItemSearchEngine searchEngine;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
 
     @Override
-    public ItemWIthCommentsDto getById(long id) {
+    @Transactional(readOnly = true)
+    public TaggedDto<ItemWIthCommentsDto> getById(long id, Predicate<String> notModified) {
         Item item = findById(id);
-        List<Comment> comments = commentRepository.findAllByItem_Id(id);
-        List<Booking> bookings = bookingRepository.findAllByItemOwnerId(item.getOwner().getId());
-        return getItemWithBookingsAndComments(item, bookings, comments);
+        ItemBookingSummary summary = summaryRepository.findById(id).orElseGet(() -> new ItemBookingSummary(id));
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> itemIds = Set.of(id);
+        Booking lastBooking = findLastBookings(itemIds, now).get(id);
+        Booking nextBooking = findNextBookings(itemIds, now).get(id);
+        String tag = VersionTags.of(item.getVersion(), summary.getRevision(),
+                bookingId(lastBooking), bookingId(nextBooking));
+        if (notModified.test(tag)) {
+            return new TaggedDto<>(tag, null);
+        }
+        List<CommentDto> comments = commentRepository.findPageByItem(id, Long.MAX_VALUE,
+                Limit.of(COMMENTS_PREVIEW_SIZE));
+        return new TaggedDto<>(tag,
+                ItemMapper.toItemWIthCommentsDto(item, comments, lastBooking, nextBooking, summary));
     }
 
     @Override
+    @Transactional
     public ItemDto create(ItemCreateDto itemCreateDto, long ownerId) {
         User user = userService.findById(ownerId);
         Item item = ItemMapper.toItem(itemCreateDto);
         item.setOwner(user);
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        if (itemCreateDto.getRequestId() != null) {
+            item.setRequest(itemRequestService.findById(itemCreateDto.getRequestId()));
+        }
+        Item saved = itemRepository.save(item);
+        entityManager.persist(new ItemBookingSummary(saved.getId()));
+        indexAfterCommit(List.of(saved));
+        return ItemMapper.toItemDto(saved);
+    }
+
+    @Override
+    @Transactional
+    public List<ItemDto> importAll(List<ItemCreateDto> itemCreateDtos, long ownerId) {
+        if (itemCreateDtos.isEmpty() || itemCreateDtos.size() > MAX_IMPORT_SIZE) {
+            log.error("Недопустимый размер импорта вещей: {}", itemCreateDtos.size());
+            throw new BadRequestException(String.format("Размер импорта должен быть от 1 до %d", MAX_IMPORT_SIZE));
+        }
+        User owner = userService.findById(ownerId);
+        Map<Long, ItemRequest> requests = itemRequestService.findAllById(itemCreateDtos.stream()
+                .map(ItemCreateDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        List<ItemDto> imported = new ArrayList<>(itemCreateDtos.size());
+        List<Item> indexed = new ArrayList<>(itemCreateDtos.size());
+        for (int from = 0; from < itemCreateDtos.size(); from += IMPORT_CHUNK_SIZE) {
+            List<Item> chunk = itemCreateDtos.subList(from, Math.min(from + IMPORT_CHUNK_SIZE, itemCreateDtos.size()))
+                    .stream()
+                    .map(itemCreateDto -> {
+                        Item item = ItemMapper.toItem(itemCreateDto);
+                        item.setOwner(owner);
+                        if (itemCreateDto.getRequestId() != null) {
+                            item.setRequest(requests.get(itemCreateDto.getRequestId()));
+                        }
+                        return item;
+                    })
+                    .toList();
+            itemRepository.saveAll(chunk);
+            chunk.forEach(item -> entityManager.persist(new ItemBookingSummary(item.getId())));
+            entityManager.flush();
+            entityManager.clear();
+            indexed.addAll(chunk);
+            chunk.forEach(item -> imported.add(ItemMapper.toItemDto(item)));
+        }
+        indexAfterCommit(indexed);
+        return imported;
     }
 
     @Override
-    public ItemDto update(ItemUpdateDto itemUpdateDto, long ownerId, long id) {
-        Item existed = findById(id);
+    @Transactional
+    public ItemDto update(ItemUpdateDto itemUpdateDto, long ownerId, long id, Set<Long> expectedVersions) {
+        // Не из кэша: изменять нужно управляемую сущность, а версия в снимке из кэша может отстать.
+        Item existed = load(id);
         if (existed.getOwner().getId() != ownerId) {
             log.error("Ошибка аутентификации: Владелец вещи c id = {}: {}, запрос от : {}",
-                    id, existed.getOwner(), ownerId);
+                    id, existed.getOwner().getId(), ownerId);
             throw new ForbiddenException("Ошибка аутентификации");
         }
+        VersionTags.checkVersion(expectedVersions, existed.getVersion());
         if (itemUpdateDto.getName() != null) {
             existed.setName(itemUpdateDto.getName());
         }
@@ -68,43 +156,106 @@ public class ItemServiceImpl implements ItemService {
         if (itemUpdateDto.getAvailable() != null) {
             existed.setAvailable(itemUpdateDto.getAvailable());
         }
-        return ItemMapper.toItemDto(itemRepository.save(existed));
+        Item saved = itemRepository.save(existed);
+        indexAfterCommit(List.of(saved));
+        evictAfterCommit(id);
+        return ItemMapper.toItemDto(saved);
     }
 
     @Override
-    public List<ItemWIthCommentsDto> getByOwner(long ownerId) {
+    @Transactional(readOnly = true)
+    public TaggedDto<List<ItemWIthCommentsDto>> getByOwner(long ownerId, Predicate<String> notModified) {
         userService.findById(ownerId);
         Map<Long, Item> items = itemRepository.findAllByOwner_id(ownerId)
                 .stream()
-                .collect(Collectors.toMap(Item::getId, Function.identity()));
-        Map<Long, List<Booking>> bookings = bookingRepository.findAllByItem_IdIn(items.keySet())
-                .stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-        Map<Long, List<Comment>> comments = commentRepository.findAllByItem_IdIn(items.keySet())
-                .stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+                .collect(Collectors.toMap(Item::getId, Function.identity(), (first, second) -> first, TreeMap::new));
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Booking> lastBookings = findLastBookings(items.keySet(), now);
+        Map<Long, Booking> nextBookings = findNextBookings(items.keySet(), now);
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findAllById(items.keySet()).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        List<Object> parts = new ArrayList<>(items.size() * 5 + 1);
+        parts.add(ownerId);
+        for (Item item : items.values()) {
+            parts.add(item.getId());
+            parts.add(item.getVersion());
+            parts.add(summaries.containsKey(item.getId()) ? summaries.get(item.getId()).getRevision() : 0L);
+            parts.add(bookingId(lastBookings.get(item.getId())));
+            parts.add(bookingId(nextBookings.get(item.getId())));
+        }
+        String tag = VersionTags.digest(parts.toArray());
+        if (notModified.test(tag)) {
+            return new TaggedDto<>(tag, null);
+        }
+        Map<Long, List<CommentDto>> comments = findNewestComments(items.keySet());
 
-        return items.values().stream()
+        return new TaggedDto<>(tag, items.values().stream()
                 .map(item -> {
-                    List<Booking> itemBookings = bookings.getOrDefault(item.getId(), Collections.emptyList());
-                    List<Comment> itemComments = comments.getOrDefault(item.getId(), Collections.emptyList());
-                    return getItemWithBookingsAndComments(item, itemBookings, itemComments);
+                    List<CommentDto> itemComments = comments.getOrDefault(item.getId(), Collections.emptyList());
+                    ItemBookingSummary summary = summaries.getOrDefault(item.getId(),
+                            new ItemBookingSummary(item.getId()));
+                    return ItemMapper.toItemWIthCommentsDto(item, itemComments,
+                            lastBookings.get(item.getId()), nextBookings.get(item.getId()), summary);
                 })
-                .toList();
+                .toList());
     }
 
     @Override
-    public List<ItemDto> search(String text) {
+    @Transactional(readOnly = true)
+    public List<ItemDto> search(String text, int from, int size) {
+        if (from < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            log.error("Недопустимые параметры страницы поиска: from = {}, size = {}", from, size);
+            throw new BadRequestException(String.format(
+                    "Параметр from не может быть отрицательным, size должен быть от 1 до %d", MAX_PAGE_SIZE));
+        }
         if (text.isBlank()) {
             return Collections.emptyList();
         }
-        return itemRepository.searchByNameAndDescription(text.toLowerCase()).stream()
+        if (!searchEngine.isReady()) {
+            return itemRepository.searchByNameAndDescription(text.toLowerCase()).stream()
+                    .skip(from)
+                    .limit(size)
+                    .map(ItemMapper::toItemDto)
+                    .collect(Collectors.toList());
+        }
+        List<Long> ids = searchEngine.search(text, from, size);
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
                 .map(ItemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Кэш читается явно, а не через @Cacheable: getById, addComment и getComments
+     * вызывают этот метод изнутри сервиса, минуя прокси. Из кэша возвращается отсоединенная копия,
+     * собранная из снимка; владелец и запрос - ссылки текущего EntityManager.
+     */
     @Override
     public Item findById(long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.ITEMS);
+        ItemSnapshot cached = cache.get(id, ItemSnapshot.class);
+        if (cached != null) {
+            return Item.builder()
+                    .id(cached.id())
+                    .name(cached.name())
+                    .description(cached.description())
+                    .available(cached.available())
+                    .owner(entityManager.getReference(User.class, cached.ownerId()))
+                    .request(cached.requestId() != null
+                            ? entityManager.getReference(ItemRequest.class, cached.requestId())
+                            : null)
+                    .version(cached.version())
+                    .build();
+        }
+        Item item = load(id);
+        cache.put(id, ItemSnapshot.of(item));
+        return item;
+    }
+
+    private Item load(long id) {
         return itemRepository.findById(id)
                 .orElseThrow(() -> {
                     log.error("Вещь с id {} не найдена", id);
@@ -113,6 +264,7 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
+    @Transactional
     public CommentDto addComment(CreateCommentDto createCommentDto, long itemId, long authorId) {
         Item item = findById(itemId);
         User author = userService.findById(authorId);
@@ -130,23 +282,93 @@ public class ItemServiceImpl implements ItemService {
                     "пользователем с id %d еще не закончилось", authorId, itemId));
         }
         Comment comment = CommentMapper.toComment(createCommentDto, author, item);
-        return CommentMapper.toCommentDto(commentRepository.save(comment));
+        Comment saved = commentRepository.save(comment);
+        summaryRepository.addComments(itemId, 1);
+        return CommentMapper.toCommentDto(saved);
     }
 
-    private ItemWIthCommentsDto getItemWithBookingsAndComments(Item item, List<Booking> bookings, List<Comment> comments) {
-        Booking lastBooking = bookings.stream()
-                .filter(booking -> {
-                    LocalDateTime now = LocalDateTime.now();
-                    return (booking.getStart().isBefore(now) && booking.getEnd().isAfter(now));
-                })
-                .max(Comparator.comparing(Booking::getEnd))
-                .orElse(null);
+    @Override
+    @Transactional(readOnly = true)
+    public CommentPageDto getComments(long itemId, Long cursor, int size) {
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            log.error("Недопустимый размер страницы комментариев: size = {}", size);
+            throw new BadRequestException(String.format("Параметр size должен быть от 1 до %d", MAX_PAGE_SIZE));
+        }
+        findById(itemId);
+        List<CommentDto> comments = commentRepository.findPageByItem(itemId,
+                cursor == null ? Long.MAX_VALUE : cursor, Limit.of(size));
+        String nextCursor = comments.size() == size
+                ? String.valueOf(comments.get(comments.size() - 1).getId())
+                : null;
+        return new CommentPageDto(comments, nextCursor);
+    }
+
+    private Map<Long, List<CommentDto>> findNewestComments(Set<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Long> ids = commentRepository.findNewestIdsByItems(itemIds, COMMENTS_PREVIEW_SIZE);
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return commentRepository.findAllDtoByIdIn(ids).stream()
+                .collect(Collectors.groupingBy(CommentDto::getItemId));
+    }
 
-        Booking nextBooking = bookings.stream()
-                .filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
-                .min(Comparator.comparing(Booking::getStart))
-                .orElse(null);
+    /**
+     * Снимок удаляется только после фиксации: удаленный до нее, он мог бы сразу вернуться в кэш
+     * из параллельного запроса, прочитавшего еще не измененную строку.
+     */
+    private void evictAfterCommit(long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.ITEMS);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.evict(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evict(id);
+            }
+        });
+    }
 
-        return ItemMapper.toItemWIthCommentsDto(item, comments, lastBooking, nextBooking);
+    /**
+     * Индекс поиска не транзакционный: вещи попадают в него только после фиксации,
+     * иначе откат оставит в выдаче то, чего нет в базе.
+     */
+    private void indexAfterCommit(List<Item> items) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            items.forEach(searchEngine::index);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                items.forEach(searchEngine::index);
+            }
+        });
+    }
+
+    private static long bookingId(Booking booking) {
+        return booking == null ? 0 : booking.getId();
+    }
+
+    private Map<Long, Booking> findLastBookings(Set<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return bookingRepository.findLastApprovedByItems(itemIds, now).stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                        (first, second) -> first));
+    }
+
+    private Map<Long, Booking> findNextBookings(Set<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return bookingRepository.findNextApprovedByItems(itemIds, now).stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Function.identity(),
+                        (first, second) -> first));
     }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.model.Item;
+
+/**
+ * Значение кэша items: неизменяемый снимок вещи со ссылками на владельца и запрос по id. Сущность в общем
+ * кэше держала бы ленивые прокси закрытой сессии и менялась бы всеми запросами, получившими ее из кэша.
+ */
+record ItemSnapshot(long id, String name, String description, boolean available, long ownerId, Long requestId,
+                    long version) {
+
+    static ItemSnapshot of(Item item) {
+        return new ItemSnapshot(item.getId(), item.getName(), item.getDescription(), item.isAvailable(),
+                item.getOwner().getId(), item.getRequest() != null ? item.getRequest().getId() : null,
+                item.getVersion());
+    }
+}
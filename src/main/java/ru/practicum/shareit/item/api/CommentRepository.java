@@ -1,13 +1,47 @@
 package ru.practicum.shareit.item.api;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
+/**
+ * Комментарии читаются сразу в CommentDto с именем автора через join, без загрузки сущностей
+ * и ленивой подгрузки автора на каждую строку.
+ */
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItem_Id(long item);
+    /**
+     * Страница комментариев вещи от новых к старым, строго после комментария cursorId.
+     * Кэшируется до изменения таблиц comments или users.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query-comments-by-item")})
+    @Query("select new ru.practicum.shareit.item.dto.CommentDto(c.id, c.text, c.item.id, a.name, c.created) " +
+            "from Comment c join c.author a " +
+            "where c.item.id = :itemId and c.id < :cursorId " +
+            "order by c.id desc")
+    List<CommentDto> findPageByItem(@Param("itemId") long itemId, @Param("cursorId") long cursorId, Limit limit);
 
-    List<Comment> findAllByItem_IdIn(Set<Long> itemId);
+    /**
+     * id последних {@code limit} комментариев каждой из вещей.
+     */
+    @Query(value = "SELECT t.id FROM (" +
+            "SELECT c.id, ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.id DESC) AS rn " +
+            "FROM comments c WHERE c.item_id IN (:itemIds)) t " +
+            "WHERE t.rn <= :limit", nativeQuery = true)
+    List<Long> findNewestIdsByItems(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @Query("select new ru.practicum.shareit.item.dto.CommentDto(c.id, c.text, c.item.id, a.name, c.created) " +
+            "from Comment c join c.author a " +
+            "where c.id in :ids " +
+            "order by c.id desc")
+    List<CommentDto> findAllDtoByIdIn(@Param("ids") Collection<Long> ids);
 }
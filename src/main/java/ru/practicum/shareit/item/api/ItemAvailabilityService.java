@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.api;
+
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ItemAvailabilityService {
+    /**
+     * Занятые (APPROVED и WAITING бронирования) и свободные интервалы вещи в [from, to).
+     */
+    ItemAvailabilityDto getAvailability(long itemId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Сбрасывает закэшированные календари вещей; внутри транзакции - после ее коммита.
+     */
+    void evict(Collection<Long> itemIds);
+}
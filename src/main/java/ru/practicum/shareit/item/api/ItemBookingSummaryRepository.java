@@ -0,0 +1,70 @@
+package ru.practicum.shareit.item.api;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Счетчики меняются относительными UPDATE в транзакции записи бронирования или комментария:
+ * конкурентные записи не теряют друг друга, строка сводки блокируется только до коммита.
+ */
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    @Modifying
+    @Query("update ItemBookingSummary s set s.bookingCount = s.bookingCount + :delta, " +
+            "s.revision = s.revision + 1 where s.itemId = :itemId")
+    int addBookings(@Param("itemId") long itemId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("update ItemBookingSummary s set s.approvedCount = s.approvedCount + :delta, " +
+            "s.revision = s.revision + 1 where s.itemId = :itemId")
+    int addApproved(@Param("itemId") long itemId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("update ItemBookingSummary s set s.commentCount = s.commentCount + :delta, " +
+            "s.revision = s.revision + 1 where s.itemId = :itemId")
+    int addComments(@Param("itemId") long itemId, @Param("delta") long delta);
+
+    @Query("select s.revision from ItemBookingSummary s where s.itemId = :itemId")
+    Optional<Long> findRevision(@Param("itemId") long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemBookingSummary s where s.itemId = :itemId")
+    Optional<ItemBookingSummary> findByIdForUpdate(@Param("itemId") long itemId);
+
+    /**
+     * Затронутая таблица указана явно: иначе нативное изменение сбрасывает все регионы кэша второго уровня.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "item_booking_summary"))
+    @Query(value = "INSERT INTO item_booking_summary (item_id, booking_count, approved_count, comment_count) " +
+            "SELECT i.id, 0, 0, 0 FROM items i " +
+            "WHERE NOT EXISTS (SELECT 1 FROM item_booking_summary s WHERE s.item_id = i.id)", nativeQuery = true)
+    int insertMissing();
+
+    @Query(value = "SELECT s.item_id FROM item_booking_summary s " +
+            "WHERE s.booking_count <> (SELECT COUNT(*) FROM bookings b WHERE b.item_id = s.item_id) " +
+            "OR s.approved_count <> (SELECT COUNT(*) FROM bookings b " +
+            "WHERE b.item_id = s.item_id AND b.status = 'APPROVED') " +
+            "OR s.comment_count <> (SELECT COUNT(*) FROM comments c WHERE c.item_id = s.item_id)", nativeQuery = true)
+    List<Long> findInconsistentItemIds();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "item_booking_summary"))
+    @Query(value = "UPDATE item_booking_summary SET " +
+            "booking_count = (SELECT COUNT(*) FROM bookings b WHERE b.item_id = :itemId), " +
+            "approved_count = (SELECT COUNT(*) FROM bookings b WHERE b.item_id = :itemId AND b.status = 'APPROVED'), " +
+            "comment_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = :itemId), " +
+            "revision = revision + 1 " +
+            "WHERE item_id = :itemId", nativeQuery = true)
+    int recount(@Param("itemId") long itemId);
+}
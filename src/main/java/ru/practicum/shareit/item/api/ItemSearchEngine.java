@@ -0,0 +1,19 @@
+package ru.practicum.shareit.item.api;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Поисковый индекс по доступным вещам. Пока индекс не построен ({@link #isReady()} == false),
+ * поиск выполняется запросом к базе.
+ */
+public interface ItemSearchEngine {
+    boolean isReady();
+
+    void index(Item item);
+
+    List<Long> search(String text, int from, int size);
+
+    void rebuild();
+}
@@ -4,19 +4,39 @@ import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.model.Item;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
 
 public interface ItemService {
-    ItemWIthCommentsDto getById(long id);
+    /**
+     * Наибольшее число вещей в одном запросе импорта: весь пакет импортируется в одной транзакции.
+     */
+    int MAX_IMPORT_SIZE = 1000;
+
+    /**
+     * Вещь и ETag ответа (версия вещи, ревизия ее сводки и текущие последнее/следующее бронирования),
+     * посчитанные в одной транзакции по одним и тем же данным.
+     *
+     * @param notModified проверка тега клиентом; если она прошла, комментарии не читаются и тело - null
+     */
+    TaggedDto<ItemWIthCommentsDto> getById(long id, Predicate<String> notModified);
 
     ItemDto create(ItemCreateDto itemCreateDto, long ownerId);
 
-    ItemDto update(ItemUpdateDto itemUpdateDto, long ownerId, long id);
+    List<ItemDto> importAll(List<ItemCreateDto> itemCreateDtos, long ownerId);
 
-    List<ItemWIthCommentsDto> getByOwner(long ownerId);
+    /**
+     * @param expectedVersions версии вещи из If-Match; пустое множество - без проверки
+     */
+    ItemDto update(ItemUpdateDto itemUpdateDto, long ownerId, long id, Set<Long> expectedVersions);
 
-    List<ItemDto> search(String text);
+    TaggedDto<List<ItemWIthCommentsDto>> getByOwner(long ownerId, Predicate<String> notModified);
+
+    List<ItemDto> search(String text, int from, int size);
 
     Item findById(long id);
 
     CommentDto addComment(CreateCommentDto createCommentDto, long itemId, long authorId);
+
+    CommentPageDto getComments(long itemId, Long cursor, int size);
 }
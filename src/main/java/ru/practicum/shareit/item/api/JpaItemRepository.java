@@ -1,16 +1,44 @@
 package ru.practicum.shareit.item.api;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface JpaItemRepository extends JpaRepository<Item, Long> {
+    /**
+     * Результат кэшируется как список id, сами вещи берутся из региона item; любое изменение
+     * таблицы items сбрасывает закэшированные результаты.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query-items-by-owner")})
     List<Item> findAllByOwner_id(long ownerId);
 
     @Query("select i from Item i " +
             "where (lower(i.name) like lower(concat('%', ?1, '%')) " +
             " or lower(i.description) like lower(concat('%', ?1, '%'))) and i.available = true")
     List<Item> searchByNameAndDescription(String text);
+
+    List<Item> findAllByAvailableTrue();
+
+    /**
+     * Блокирует строку вещи до конца транзакции: одобрения бронирований одной вещи
+     * выполняются последовательно.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in :ids order by i.id")
+    List<Item> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
 }
@@ -12,5 +12,5 @@ public class ItemCreateDto {
     private String description;
     @NotNull(message = "Поле available должно быть указано")
     private Boolean available;
-    private long request;
+    private Long requestId;
 }
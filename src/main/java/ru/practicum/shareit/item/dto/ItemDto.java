@@ -2,7 +2,6 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.Builder;
 import lombok.Data;
-import ru.practicum.shareit.request.ItemRequest;
 
 @Data
 @Builder
@@ -11,5 +10,5 @@ public class ItemDto {
     private String name;
     private String description;
     private boolean available;
-    private ItemRequest request;
+    private Long requestId;
 }
@@ -11,7 +11,13 @@ public class ItemWIthCommentsDto {
     private String name;
     private String description;
     private boolean available;
+    /**
+     * Последние комментарии вещи; всего их commentCount, остальные - через /items/{id}/comments.
+     */
     private List<CommentDto> comments;
     private BookingDateDto lastBooking;
     private BookingDateDto nextBooking;
+    private long bookingCount;
+    private long approvedBookingCount;
+    private long commentCount;
 }
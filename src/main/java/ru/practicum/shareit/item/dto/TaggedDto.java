@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Ответ вместе с его ETag. Тело - null, если клиентская копия актуальна и тело не загружалось.
+ */
+@Data
+@AllArgsConstructor
+public class TaggedDto<T> {
+    private String tag;
+    private T body;
+}
@@ -3,6 +3,8 @@ package ru.practicum.shareit.item.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDate;
@@ -11,9 +13,11 @@ import java.time.LocalDate;
 @Data
 @EqualsAndHashCode(of = {"id"})
 @Table(name = "comments")
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "comment")
 public class Comment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comments_seq")
+    @SequenceGenerator(name = "comments_seq", allocationSize = 50)
     private long id;
     @Column(name = "text")
     private String text;
@@ -25,4 +29,7 @@ public class Comment {
     private User author;
     @Column(name = "date_of_creation")
     private LocalDate created = LocalDate.now();
+    @Version
+    @Column(name = "version")
+    private long version;
 }
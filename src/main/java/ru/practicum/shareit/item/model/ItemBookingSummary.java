@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Счетчики бронирований и комментариев вещи, которые поддерживаются при каждой записи, чтобы список
+ * вещей владельца не пересчитывал их по всей истории. Строка создается вместе с вещью.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(of = {"itemId"})
+@Table(name = "item_booking_summary")
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private long itemId;
+    @Column(name = "booking_count")
+    private long bookingCount;
+    @Column(name = "approved_count")
+    private long approvedCount;
+    @Column(name = "comment_count")
+    private long commentCount;
+    /**
+     * Растет при каждом изменении сводки; входит в ETag вещи.
+     */
+    @Column(name = "revision")
+    private long revision;
+
+    public ItemBookingSummary(long itemId) {
+        this.itemId = itemId;
+    }
+}
@@ -0,0 +1,199 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.api.ItemSearchEngine;
+import ru.practicum.shareit.item.api.JpaItemRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Инвертированный индекс по триграммам названия и описания вещи. В индекс попадают только
+ * доступные вещи, поэтому фильтр available=true уже заложен в списки вхождений.
+ * Кандидаты, найденные пересечением списков, проверяются на вхождение подстроки, так что
+ * результат совпадает с поиском через {@link JpaItemRepository#searchByNameAndDescription}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrigramItemSearchEngine implements ItemSearchEngine {
+
+    private static final int GRAM = 3;
+    private static final int NAME_WORD_SCORE = 4;
+    private static final int NAME_SCORE = 2;
+    private static final int DESCRIPTION_SCORE = 1;
+
+    private final JpaItemRepository itemRepository;
+
+    private final Object rebuildLock = new Object();
+    private final List<Item> pendingUpdates = new ArrayList<>();
+    private volatile boolean rebuilding;
+    private volatile Index index = new Index();
+    private volatile boolean ready;
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void index(Item item) {
+        synchronized (rebuildLock) {
+            if (rebuilding) {
+                pendingUpdates.add(item);
+            }
+        }
+        index.put(item);
+    }
+
+    @Override
+    public List<Long> search(String text, int from, int size) {
+        String query = normalize(text);
+        Index current = index;
+        return current.candidates(query)
+                .map(current.documents::get)
+                .filter(document -> document != null && document.matches(query))
+                .sorted(Comparator.comparingInt((Document document) -> document.score(query)).reversed()
+                        .thenComparingLong(Document::id))
+                .skip(from)
+                .limit(size)
+                .map(Document::id)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Override
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            rebuilding = true;
+            pendingUpdates.clear();
+        }
+        ready = false;
+        try {
+            Index fresh = new Index();
+            itemRepository.findAllByAvailableTrue().forEach(fresh::put);
+            synchronized (rebuildLock) {
+                pendingUpdates.forEach(fresh::put);
+                pendingUpdates.clear();
+                index = fresh;
+                rebuilding = false;
+            }
+            ready = true;
+            log.info("Поисковый индекс вещей построен, документов: {}", fresh.documents.size());
+        } catch (RuntimeException e) {
+            synchronized (rebuildLock) {
+                pendingUpdates.forEach(index::put);
+                pendingUpdates.clear();
+                rebuilding = false;
+            }
+            log.error("Не удалось построить поисковый индекс вещей, поиск выполняется через базу", e);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record Document(long id, String name, String description) {
+        static Document of(Item item) {
+            return new Document(item.getId(), normalize(item.getName()), normalize(item.getDescription()));
+        }
+
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        int score(String query) {
+            int score = 0;
+            if (name.contains(query)) {
+                score += NAME_SCORE;
+                for (String word : name.split("\\W+")) {
+                    if (word.equals(query)) {
+                        score += NAME_WORD_SCORE;
+                        break;
+                    }
+                }
+            }
+            if (description.contains(query)) {
+                score += DESCRIPTION_SCORE;
+            }
+            return score;
+        }
+
+        Set<String> grams() {
+            Set<String> grams = trigrams(name);
+            grams.addAll(trigrams(description));
+            return grams;
+        }
+    }
+
+    private static class Index {
+        private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+        void put(Item item) {
+            documents.compute(item.getId(), (id, old) -> {
+                if (old != null) {
+                    old.grams().forEach(gram -> {
+                        Set<Long> ids = postings.get(gram);
+                        if (ids != null) {
+                            ids.remove(id);
+                        }
+                    });
+                }
+                if (!item.isAvailable()) {
+                    return null;
+                }
+                Document document = Document.of(item);
+                document.grams().forEach(gram ->
+                        postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id));
+                return document;
+            });
+        }
+
+        Stream<Long> candidates(String query) {
+            if (query.length() < GRAM) {
+                return documents.keySet().stream();
+            }
+            Set<Long> smallest = null;
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : trigrams(query)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null || ids.isEmpty()) {
+                    return Stream.empty();
+                }
+                lists.add(ids);
+                if (smallest == null || ids.size() < smallest.size()) {
+                    smallest = ids;
+                }
+            }
+            Set<Long> first = smallest;
+            return first.stream()
+                    .filter(id -> lists.stream().allMatch(ids -> ids == first || ids.contains(id)));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.logging;
+
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToLongFunction;
+
+/**
+ * Краткое представление ответов для логов. На уровне INFO пишутся число элементов и их id
+ * (не более {@link #MAX_IDS}), полные тела - только на DEBUG и только для доли запросов,
+ * заданной shareit.logging.body-sample-rate.
+ */
+@Component
+public class LogSummary {
+    private static final int MAX_IDS = 10;
+
+    private final double bodySampleRate;
+
+    public LogSummary(@Value("${shareit.logging.body-sample-rate}") double bodySampleRate) {
+        this.bodySampleRate = bodySampleRate;
+    }
+
+    public static <T> Object ofList(List<T> values, ToLongFunction<T> idExtractor) {
+        return new Object() {
+            @Override
+            public String toString() {
+                StringBuilder summary = new StringBuilder("count=").append(values.size()).append(", ids=[");
+                int shown = Math.min(values.size(), MAX_IDS);
+                for (int i = 0; i < shown; i++) {
+                    if (i > 0) {
+                        summary.append(", ");
+                    }
+                    summary.append(idExtractor.applyAsLong(values.get(i)));
+                }
+                if (values.size() > shown) {
+                    summary.append(", ... +").append(values.size() - shown);
+                }
+                return summary.append(']').toString();
+            }
+        };
+    }
+
+    public void debugBody(Logger log, String endpoint, Object body) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        if (bodySampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < bodySampleRate) {
+            log.debug("Тело ответа {}: {}", endpoint, body);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Записывает для каждого запроса число выполненных SQL-выражений (метрика shareit.sql.statements
+ * с тегами method и uri) и сохраняет запрос в {@link SlowRequestLog}. Асинхронные ответы записываются
+ * по завершении, вместе с выражениями, выполненными в потоке асинхронной части. Метрики создаются один раз
+ * на пару метода и шаблона uri и дальше берутся из {@link #summaries}.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final SlowRequestLog slowRequestLog;
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long startNanos = System.nanoTime();
+        AtomicInteger statements = new AtomicInteger();
+        request.setAttribute(SqlStatementCounter.REQUEST_ATTRIBUTE, statements);
+        SqlStatementCounter.bind(statements);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SqlStatementCounter.unbind();
+            if (request.isAsyncStarted()) {
+                // выгрузки и SSE досчитываются в других потоках, запрос записывается после их завершения
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, startNanos, statements.get());
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, startNanos, statements.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, long startNanos, int statements) {
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        summaries.computeIfAbsent(method + " " + uri, key -> DistributionSummary.builder("shareit.sql.statements")
+                        .description("SQL statements executed per request")
+                        .tag("method", method)
+                        .tag("uri", uri)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(statements);
+        slowRequestLog.add(new SlowRequestLog.RequestRecord(Instant.now(), method,
+                request.getRequestURI(), uri, response.getStatus(), durationMs, statements));
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Кольцевой буфер последних обработанных запросов, из которого отбираются самые медленные.
+ */
+@Component
+public class SlowRequestLog {
+    private static final int CAPACITY = 1000;
+
+    private final RequestRecord[] records = new RequestRecord[CAPACITY];
+    private int next;
+
+    public synchronized void add(RequestRecord record) {
+        records[next] = record;
+        next = (next + 1) % CAPACITY;
+    }
+
+    public List<RequestRecord> slowest(int limit) {
+        List<RequestRecord> snapshot = new ArrayList<>(CAPACITY);
+        synchronized (this) {
+            for (RequestRecord record : records) {
+                if (record != null) {
+                    snapshot.add(record);
+                }
+            }
+        }
+        return snapshot.stream()
+                .sorted(Comparator.comparingLong(RequestRecord::durationMs).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public record RequestRecord(Instant timestamp, String method, String uri, String pattern, int status,
+                                long durationMs, int sqlStatements) {
+    }
+}
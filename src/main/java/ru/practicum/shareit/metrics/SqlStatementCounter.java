@@ -0,0 +1,35 @@
+package ru.practicum.shareit.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Считает SQL-выражения, подготовленные Hibernate, в счётчик запроса, привязанный к текущему потоку.
+ * Счётчик создается фильтром {@link RequestMetricsFilter}, хранится в атрибуте запроса и привязывается
+ * к каждому потоку, который выполняет работу этого запроса: к потоку обработки и к потоку асинхронной
+ * части ответа ({@link SqlStatementCountingInterceptor}). Выражения фоновых задач (relay событий,
+ * проверка сводок) ни к какому запросу не относятся и не считаются.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    static final String REQUEST_ATTRIBUTE = SqlStatementCounter.class.getName();
+
+    private static final ThreadLocal<AtomicInteger> CURRENT = new ThreadLocal<>();
+
+    static void bind(AtomicInteger counter) {
+        CURRENT.set(counter);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        AtomicInteger counter = CURRENT.get();
+        if (counter != null) {
+            counter.incrementAndGet();
+        }
+        return sql;
+    }
+}
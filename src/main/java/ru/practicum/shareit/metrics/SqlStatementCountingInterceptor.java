@@ -0,0 +1,28 @@
+package ru.practicum.shareit.metrics;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Привязывает счётчик SQL-выражений запроса к потоку, в котором выполняется асинхронная часть ответа
+ * (например, StreamingResponseBody выгрузки бронирований).
+ */
+class SqlStatementCountingInterceptor implements CallableProcessingInterceptor {
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        Object counter = request.getAttribute(SqlStatementCounter.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (counter instanceof AtomicInteger statements) {
+            SqlStatementCounter.bind(statements);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        SqlStatementCounter.unbind();
+    }
+}
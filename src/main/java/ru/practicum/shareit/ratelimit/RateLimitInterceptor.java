@@ -0,0 +1,92 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.error.exception.TooManyRequestsException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничивает частоту запросов каждого пользователя отдельно по каждому бюджету. Корзины живут в
+ * Caffeine: корзина, к которой не обращались idle-timeout, удаляется, общее число корзин ограничено
+ * max-buckets. Удаленная корзина при следующем запросе создается полной, так что вытеснение только
+ * смягчает лимит. Запросы без заголовка или с нечисловым значением пропускаются - их отклонит контроллер.
+ */
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+    static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final String DEFAULT_BUDGET = "default";
+
+    private final Map<String, String> budgetByPath = new HashMap<>();
+    private final Map<String, RateLimitProperties.Budget> budgets = new HashMap<>();
+    private final Map<String, Counter> throttled = new HashMap<>();
+    private final Cache<BucketKey, TokenBucket> buckets;
+
+    public RateLimitInterceptor(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        budgets.put(DEFAULT_BUDGET, properties.getDefaults());
+        properties.getEndpoints().forEach((name, budget) -> {
+            budgets.put(name, budget);
+            budget.getPaths().forEach(path -> budgetByPath.put(path, name));
+        });
+        budgets.keySet().forEach(name -> throttled.put(name, Counter.builder("shareit.ratelimit.throttled")
+                .description("Запросы, отклоненные ограничением частоты")
+                .tag("budget", name)
+                .register(meterRegistry)));
+        buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.getIdleTimeout())
+                .maximumSize(properties.getMaxBuckets())
+                .build();
+        meterRegistry.gauge("shareit.ratelimit.buckets", buckets, Cache::estimatedSize);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        Long userId = parseUserId(request.getHeader(USER_HEADER));
+        if (userId == null) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String budgetName = pattern != null ? budgetByPath.getOrDefault(pattern.toString(), DEFAULT_BUDGET)
+                : DEFAULT_BUDGET;
+        RateLimitProperties.Budget budget = budgets.get(budgetName);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(new BucketKey(userId, budgetName),
+                key -> new TokenBucket(budget.getCapacity(), budget.getRefillPerSecond(), now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos == 0) {
+            return true;
+        }
+        throttled.get(budgetName).increment();
+        log.warn("Запрос {} {} пользователя {} отклонен: исчерпан бюджет {}", request.getMethod(),
+                request.getRequestURI(), userId, budgetName);
+        throw new TooManyRequestsException("Слишком много запросов, повторите позже",
+                Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+    }
+
+    private static Long parseUserId(String header) {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private record BucketKey(long userId, String budget) {
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.shareit.ratelimit;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Бюджеты запросов пользователя (X-Sharer-User-Id). Эндпоинт попадает в бюджет endpoints.*, если его
+ * шаблон из @RequestMapping перечислен в paths, иначе - в defaults. Нулевой или отрицательный размер бюджета
+ * или скорость пополнения не дают запустить приложение.
+ */
+@Data
+@Validated
+@ConfigurationProperties("shareit.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private long maxBuckets = 100_000;
+    @Valid
+    private Budget defaults = new Budget();
+    private Map<String, @Valid Budget> endpoints = new LinkedHashMap<>();
+
+    @Data
+    public static class Budget {
+        private List<String> paths = List.of();
+        @Positive
+        private int capacity = 100;
+        @Positive
+        private double refillPerSecond = 50;
+    }
+}
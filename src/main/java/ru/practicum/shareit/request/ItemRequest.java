@@ -1,8 +0,0 @@
-package ru.practicum.shareit.request;
-
-
-/**
- * TODO Sprint add-item-requests.
- */
-public class ItemRequest {
-}
@@ -1,12 +1,75 @@
 package ru.practicum.shareit.request;
 
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.logging.LogSummary;
+import ru.practicum.shareit.request.api.ItemRequestService;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPageDto;
+
+import java.util.List;
 
-/**
- * TODO Sprint add-item-requests.
- */
 @RestController
 @RequestMapping(path = "/requests")
+@RequiredArgsConstructor
+@Slf4j
 public class ItemRequestController {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String DEFAULT_PAGE_SIZE = "20";
+
+    private final ItemRequestService itemRequestService;
+    private final LogSummary logSummary;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ItemRequestDto create(@RequestBody @Valid ItemRequestCreateDto itemRequestCreateDto,
+                                 @RequestHeader("X-Sharer-User-Id") long requestorId) {
+        log.info("Пришел Post запрос /requests с телом: {} и заголовком X-Sharer-User-Id: {}",
+                itemRequestCreateDto, requestorId);
+        ItemRequestDto itemRequestDto = itemRequestService.create(itemRequestCreateDto, requestorId);
+        log.info("Отправлен ответ Post /requests с id: {}", itemRequestDto.getId());
+        logSummary.debugBody(log, "Post /requests", itemRequestDto);
+        return itemRequestDto;
+    }
+
+    @GetMapping
+    public List<ItemRequestDto> getOwn(@RequestHeader("X-Sharer-User-Id") long requestorId) {
+        log.info("Пришел Get запрос /requests с заголовком X-Sharer-User-Id: {} на получение своих запросов",
+                requestorId);
+        List<ItemRequestDto> requests = itemRequestService.getOwn(requestorId);
+        log.info("Отправлен ответ Get /requests: {}", LogSummary.ofList(requests, ItemRequestDto::getId));
+        logSummary.debugBody(log, "Get /requests", requests);
+        return requests;
+    }
+
+    @GetMapping("/all")
+    public ResponseEntity<List<ItemRequestDto>> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+        log.info("Пришел Get запрос /requests/all userId: {}, cursor {}, size {} на получение запросов других " +
+                "пользователей", userId, cursor, size);
+        ItemRequestPageDto page = itemRequestService.getAll(userId, cursor, size);
+        log.info("Отправлен ответ Get /requests/all: {}", LogSummary.ofList(page.getRequests(), ItemRequestDto::getId));
+        logSummary.debugBody(log, "Get /requests/all", page.getRequests());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getRequests());
+    }
+
+    @GetMapping("/{id}")
+    public ItemRequestDto getById(@PathVariable long id, @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Пришел Get запрос /requests/{id} с id: {}, userId: {}", id, userId);
+        ItemRequestDto itemRequestDto = itemRequestService.getById(id, userId);
+        log.info("Отправлен ответ Get /requests/{id} с id: {}", itemRequestDto.getId());
+        logSummary.debugBody(log, "Get /requests/{id}", itemRequestDto);
+        return itemRequestDto;
+    }
 }
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.request;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.error.exception.BadRequestException;
+import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.request.api.ItemRequestRepository;
+import ru.practicum.shareit.request.api.ItemRequestService;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPageDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.api.UserService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.KeysetCursor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Timed(value = "shareit.service", histogram = true)
+public class ItemRequestServiceImpl implements ItemRequestService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final UserService userService;
+
+    @Override
+    public ItemRequestDto create(ItemRequestCreateDto itemRequestCreateDto, long requestorId) {
+        User requestor = userService.findById(requestorId);
+        ItemRequest itemRequest = ItemRequestMapper.toItemRequest(itemRequestCreateDto, requestor);
+        return ItemRequestMapper.toItemRequestDto(itemRequestRepository.save(itemRequest), Collections.emptyList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getOwn(long requestorId) {
+        userService.findById(requestorId);
+        return withAnswers(itemRequestRepository.findAllByRequestor(requestorId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestPageDto getAll(long userId, String cursor, int size) {
+        userService.findById(userId);
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            log.error("Недопустимый размер страницы: {}", size);
+            throw new BadRequestException(String.format("Размер страницы должен быть от 1 до %d", MAX_PAGE_SIZE));
+        }
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        List<ItemRequest> requests = itemRequestRepository.findAllOthers(userId, position.key(), position.id(),
+                Limit.of(size));
+        String nextCursor = null;
+        if (requests.size() == size) {
+            ItemRequest last = requests.get(requests.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreated(), last.getId()).encode();
+        }
+        return new ItemRequestPageDto(withAnswers(requests), nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemRequestDto getById(long id, long userId) {
+        userService.findById(userId);
+        return withAnswers(List.of(findById(id))).get(0);
+    }
+
+    @Override
+    public ItemRequest findById(long id) {
+        return itemRequestRepository.findById(id).orElseThrow(() -> {
+            log.error("Запрос с id {} не найден", id);
+            return new NotFoundException(String.format("Запрос с id %d не найден", id));
+        });
+    }
+
+    @Override
+    public Map<Long, ItemRequest> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        if (requests.size() < new HashSet<>(ids).size()) {
+            Set<Long> missing = new HashSet<>(ids);
+            missing.removeAll(requests.keySet());
+            log.error("Запросы с id {} не найдены", missing);
+            throw new NotFoundException(String.format("Запросы с id %s не найдены", missing));
+        }
+        return requests;
+    }
+
+    /**
+     * Ответы для всей страницы запросов одним запросом к items, сгруппированные по id запроса.
+     */
+    private List<ItemRequestDto> withAnswers(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<ItemAnswerDto>> answers = itemRequestRepository.findAnswers(requests.stream()
+                        .map(ItemRequest::getId)
+                        .toList())
+                .stream()
+                .collect(Collectors.groupingBy(ItemAnswerDto::getRequestId));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDto(request,
+                        answers.getOrDefault(request.getId(), Collections.emptyList())))
+                .toList();
+    }
+}
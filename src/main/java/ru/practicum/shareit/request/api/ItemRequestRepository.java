@@ -0,0 +1,33 @@
+package ru.practicum.shareit.request.api;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.dto.ItemAnswerDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @Query("select r from ItemRequest r where r.requestor.id = :requestorId order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequestor(@Param("requestorId") long requestorId);
+
+    /**
+     * Лента чужих запросов от новых к старым, строго после пары (cursorDate, cursorId).
+     */
+    @Query("select r from ItemRequest r where r.requestor.id <> :userId " +
+            "AND (r.created < :cursorDate OR (r.created = :cursorDate AND r.id < :cursorId)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllOthers(@Param("userId") long userId, @Param("cursorDate") LocalDateTime cursorDate,
+                                    @Param("cursorId") long cursorId, Limit limit);
+
+    /**
+     * Вещи, предложенные в ответ на любой из запросов, одним запросом для всей страницы.
+     */
+    @Query("select new ru.practicum.shareit.request.dto.ItemAnswerDto(i.id, i.name, i.owner.id, i.request.id) " +
+            "from Item i where i.request.id in :requestIds order by i.id")
+    List<ItemAnswerDto> findAnswers(@Param("requestIds") Collection<Long> requestIds);
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.request.api;
+
+import ru.practicum.shareit.request.dto.ItemRequestCreateDto;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestPageDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ItemRequestService {
+    ItemRequestDto create(ItemRequestCreateDto itemRequestCreateDto, long requestorId);
+
+    List<ItemRequestDto> getOwn(long requestorId);
+
+    ItemRequestPageDto getAll(long userId, String cursor, int size);
+
+    ItemRequestDto getById(long id, long userId);
+
+    ItemRequest findById(long id);
+
+    /**
+     * Запросы по id; если какого-то нет, бросает NotFoundException.
+     */
+    Map<Long, ItemRequest> findAllById(Collection<Long> ids);
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ItemRequestCreateDto {
+    @NotBlank(message = "Поле description не должно быть пустым")
+    @Size(max = 1024, message = "Поле description не должно быть длиннее 1024 символов")
+    private String description;
+}
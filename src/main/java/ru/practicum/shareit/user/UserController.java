@@ -1,14 +1,21 @@
 package ru.practicum.shareit.user;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.logging.LogSummary;
 import ru.practicum.shareit.user.api.UserService;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
+import ru.practicum.shareit.util.VersionTags;
 
 import java.util.List;
 
@@ -19,21 +26,34 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final LogSummary logSummary;
 
     @GetMapping
-    public List<UserDto> getAll() {
+    public ResponseEntity<List<UserDto>> getAll(WebRequest request) {
         log.info("Пришел Get запрос /users на получение всех пользователей");
+        String eTag = userService.getAllVersionTag();
+        if (request.checkNotModified(eTag)) {
+            log.info("Отправлен ответ Get /users: список не изменился");
+            return null;
+        }
         List<UserDto> users = userService.getAll();
-        log.info("Отправлен ответ Get /users с телом: {}", users);
-        return users;
+        log.info("Отправлен ответ Get /users: {}", LogSummary.ofList(users, UserDto::getId));
+        logSummary.debugBody(log, "Get /users", users);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(users);
     }
 
     @GetMapping("/{id}")
-    public UserDto getById(@PathVariable long id) {
+    public ResponseEntity<UserDto> getById(@PathVariable long id, WebRequest request) {
         log.info("Пришел Get запрос /users/{id} с id: {}", id);
+        String eTag = userService.getVersionTag(id);
+        if (request.checkNotModified(eTag)) {
+            log.info("Отправлен ответ Get /users/{id} с id: {}: не изменился", id);
+            return null;
+        }
         UserDto userDto = userService.getById(id);
-        log.info("Отправлен ответ Get /users/{id} с телом: {}", userDto);
-        return userDto;
+        log.info("Отправлен ответ Get /users/{id} с id: {}", userDto.getId());
+        logSummary.debugBody(log, "Get /users/{id}", userDto);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(eTag).body(userDto);
     }
 
     @PostMapping
@@ -41,16 +61,30 @@ public class UserController {
     public UserDto create(@RequestBody @Valid UserCreateDto user) {
         log.info("Пришел Post запрос /users с телом: {}", user);
         UserDto userDto = userService.create(user);
-        log.info("Отправлен ответ Post /users с телом: {}", userDto);
+        log.info("Отправлен ответ Post /users с id: {}", userDto.getId());
+        logSummary.debugBody(log, "Post /users", userDto);
         return userDto;
     }
 
+    @PostMapping("/import")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<UserDto> importUsers(@RequestBody @Size(min = 1, max = UserService.MAX_IMPORT_SIZE,
+                                             message = "Размер импорта должен быть от {min} до {max}")
+                                     List<@Valid UserCreateDto> users) {
+        log.info("Пришел Post запрос /users/import на импорт {} пользователей", users.size());
+        List<UserDto> imported = userService.importAll(users);
+        log.info("Отправлен ответ Post /users/import: {}", LogSummary.ofList(imported, UserDto::getId));
+        return imported;
+    }
+
     @PatchMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public UserDto update(@RequestBody @Valid UserUpdateDto user, @PathVariable long id) {
-        log.info("Пришел Patch запрос /users/{id} с телом: {} и id: {}", user, id);
-        UserDto userDto = userService.update(user, id);
-        log.info("Отправлен ответ Patch /users/{id} с телом: {}", userDto);
+    public UserDto update(@RequestBody @Valid UserUpdateDto user, @PathVariable long id,
+                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.info("Пришел Patch запрос /users/{id} с телом: {}, If-Match: {} и id: {}", user, ifMatch, id);
+        UserDto userDto = userService.update(user, id, VersionTags.parseVersions(ifMatch));
+        log.info("Отправлен ответ Patch /users/{id} с id: {}", userDto.getId());
+        logSummary.debugBody(log, "Patch /users/{id}", userDto);
         return userDto;
     }
 
@@ -1,28 +1,48 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.error.exception.BadRequestException;
 import ru.practicum.shareit.error.exception.DuplicateException;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.user.api.JpaUserRepository;
 import ru.practicum.shareit.user.api.UserService;
+import ru.practicum.shareit.user.api.UserVersionSummary;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserUpdateDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.VersionTags;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed(value = "shareit.service", histogram = true)
 public class UserServiceImpl implements UserService {
 
+    private static final int IMPORT_CHUNK_SIZE = 50;
+
     private final JpaUserRepository userRepository;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
 
     @Override
+    @Transactional(readOnly = true)
     public List<UserDto> getAll() {
         return userRepository.findAll().stream()
                 .map(UserMapper::toUserDto)
@@ -30,6 +50,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDto getById(long id) {
         return UserMapper.toUserDto(findById(id));
     }
@@ -42,8 +63,43 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public UserDto update(UserUpdateDto userDto, long id) {
-        User existed = findById(id);
+    @Transactional
+    public List<UserDto> importAll(List<UserCreateDto> userDtos) {
+        if (userDtos.isEmpty() || userDtos.size() > MAX_IMPORT_SIZE) {
+            log.error("Недопустимый размер импорта пользователей: {}", userDtos.size());
+            throw new BadRequestException(String.format("Размер импорта должен быть от 1 до %d", MAX_IMPORT_SIZE));
+        }
+        Set<String> emails = new HashSet<>();
+        for (UserCreateDto userDto : userDtos) {
+            if (!emails.add(userDto.getEmail())) {
+                log.error("Email повторяется в импортируемых данных: {}", userDto.getEmail());
+                throw new DuplicateException("Данный email уже используется");
+            }
+        }
+        List<User> used = userRepository.findAllByEmailIn(emails);
+        if (!used.isEmpty()) {
+            log.error("Данные email уже используются: {}", used.stream().map(User::getEmail).toList());
+            throw new DuplicateException("Данный email уже используется");
+        }
+        List<UserDto> imported = new ArrayList<>(userDtos.size());
+        for (int from = 0; from < userDtos.size(); from += IMPORT_CHUNK_SIZE) {
+            List<User> chunk = userDtos.subList(from, Math.min(from + IMPORT_CHUNK_SIZE, userDtos.size())).stream()
+                    .map(UserMapper::toUser)
+                    .toList();
+            userRepository.saveAll(chunk);
+            entityManager.flush();
+            entityManager.clear();
+            chunk.forEach(user -> imported.add(UserMapper.toUserDto(user)));
+        }
+        return imported;
+    }
+
+    @Override
+    @Transactional
+    public UserDto update(UserUpdateDto userDto, long id, Set<Long> expectedVersions) {
+        // Не из кэша: изменять нужно управляемую сущность, а версия в снимке из кэша может отстать.
+        User existed = load(id);
+        VersionTags.checkVersion(expectedVersions, existed.getVersion());
         String dtoEmail = userDto.getEmail();
         if (userDto.getName() != null) {
             existed.setName(userDto.getName());
@@ -54,25 +110,77 @@ public class UserServiceImpl implements UserService {
                 existed.setEmail(dtoEmail);
             }
         }
-        userRepository.save(existed);
-        return UserMapper.toUserDto(existed);
+        User saved = userRepository.save(existed);
+        evictAfterCommit(id);
+        return UserMapper.toUserDto(saved);
     }
 
     @Override
+    @Transactional
     public void delete(long id) {
         userRepository.deleteById(id);
+        evictAfterCommit(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getVersionTag(long id) {
+        return VersionTags.of(findById(id).getVersion());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public String getAllVersionTag() {
+        UserVersionSummary summary = userRepository.getVersionSummary();
+        return VersionTags.digest(summary.getTotal(), summary.getIdSum(), summary.getVersionSum());
     }
 
+    /**
+     * Кэш читается явно, а не через @Cacheable: getById и getVersionTag вызывают этот метод
+     * изнутри сервиса, минуя прокси. Из кэша возвращается отсоединенная копия, собранная из снимка.
+     */
     @Override
     public User findById(long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.USERS);
+        UserSnapshot cached = cache.get(id, UserSnapshot.class);
+        if (cached != null) {
+            return cached.toUser();
+        }
+        User user = load(id);
+        cache.put(id, UserSnapshot.of(user));
+        return user;
+    }
+
+    private User load(long id) {
         return userRepository.findById(id).orElseThrow(() -> {
             log.error("Пользователь c id {} не найден", id);
             return new NotFoundException(String.format("Пользователь c id %d не найден", id));
         });
     }
 
+    /**
+     * Снимок удаляется только после фиксации: удаленный до нее, он мог бы сразу вернуться в кэш
+     * из параллельного запроса, прочитавшего еще не измененную строку.
+     */
+    private void evictAfterCommit(long id) {
+        Cache users = cacheManager.getCache(CacheConfig.USERS);
+        Cache usersByEmail = cacheManager.getCache(CacheConfig.USERS_BY_EMAIL);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            users.evict(id);
+            usersByEmail.clear();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                users.evict(id);
+                usersByEmail.clear();
+            }
+        });
+    }
+
     private void checkEmailUsed(String email) {
-        if (userRepository.findByEmail(email).isPresent()) {
+        if (userRepository.findIdByEmail(email).isPresent()) {
             log.error("Данный email уже используется: {}", email);
             throw new DuplicateException("Данный email уже используется");
         }
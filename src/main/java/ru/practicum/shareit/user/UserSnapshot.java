@@ -0,0 +1,23 @@
+package ru.practicum.shareit.user;
+
+import ru.practicum.shareit.user.model.User;
+
+/**
+ * Значение кэша users. В общем кэше хранится неизменяемый снимок, а не сущность: сущность привязана к сессии
+ * Hibernate загрузившего ее запроса и изменяема, поэтому каждый вызов findById получает свой экземпляр User.
+ */
+record UserSnapshot(long id, String name, String email, long version) {
+
+    static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getName(), user.getEmail(), user.getVersion());
+    }
+
+    User toUser() {
+        return User.builder()
+                .id(id)
+                .name(name)
+                .email(email)
+                .version(version)
+                .build();
+    }
+}
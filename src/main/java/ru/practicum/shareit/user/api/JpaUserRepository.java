@@ -1,10 +1,26 @@
 package ru.practicum.shareit.user.api;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.config.CacheConfig;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface JpaUserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+    /**
+     * В кэше только id: сущности в общем кэше не хранятся.
+     */
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, unless = "#result == null")
+    @Query("select u.id from User u where u.email = ?1")
+    Optional<Long> findIdByEmail(String email);
+
+    List<User> findAllByEmailIn(Collection<String> emails);
+
+    @Query("select count(u) as total, coalesce(sum(u.id), 0) as idSum, coalesce(sum(u.version), 0) as versionSum " +
+            "from User u")
+    UserVersionSummary getVersionSummary();
 }
@@ -6,17 +6,32 @@ import ru.practicum.shareit.user.dto.UserUpdateDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.Set;
 
 public interface UserService {
+    /**
+     * Наибольшее число пользователей в одном запросе импорта: весь пакет импортируется в одной транзакции.
+     */
+    int MAX_IMPORT_SIZE = 1000;
+
     List<UserDto> getAll();
 
     UserDto getById(long id);
 
     UserDto create(UserCreateDto user);
 
-    UserDto update(UserUpdateDto user, long id);
+    List<UserDto> importAll(List<UserCreateDto> users);
+
+    /**
+     * @param expectedVersions версии из If-Match; пустое множество - без проверки
+     */
+    UserDto update(UserUpdateDto user, long id, Set<Long> expectedVersions);
 
     void delete(long id);
 
     User findById(long id);
+
+    String getVersionTag(long id);
+
+    String getAllVersionTag();
 }
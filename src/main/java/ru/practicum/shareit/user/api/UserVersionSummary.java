@@ -0,0 +1,12 @@
+package ru.practicum.shareit.user.api;
+
+/**
+ * Агрегат по таблице пользователей для ETag списка: меняется при создании, удалении и изменении любого из них.
+ */
+public interface UserVersionSummary {
+    long getTotal();
+
+    long getIdSum();
+
+    long getVersionSum();
+}
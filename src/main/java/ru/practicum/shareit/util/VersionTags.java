@@ -0,0 +1,66 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.util.DigestUtils;
+import ru.practicum.shareit.error.exception.PreconditionFailedException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Значения ETag, построенные из версий сущностей. Тег одной сущности начинается с ее @Version,
+ * поэтому из If-Match можно достать ожидаемую версию; тег списка - хэш версий всех элементов.
+ */
+public final class VersionTags {
+    private static final String SEPARATOR = ".";
+
+    private VersionTags() {
+    }
+
+    public static String of(long version, Object... parts) {
+        StringBuilder tag = new StringBuilder().append(version);
+        for (Object part : parts) {
+            tag.append(SEPARATOR).append(part);
+        }
+        return tag.toString();
+    }
+
+    public static String digest(Object... parts) {
+        String joined = Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+        return DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Версии из заголовка If-Match. Пустое множество - заголовка нет или он равен "*", проверять нечего.
+     */
+    public static Set<Long> parseVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return Collections.emptySet();
+        }
+        Set<Long> versions = new LinkedHashSet<>();
+        for (String tag : ifMatch.split(",")) {
+            String value = tag.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            value = value.replace("\"", "");
+            int separator = value.indexOf(SEPARATOR);
+            try {
+                versions.add(Long.parseLong(separator < 0 ? value : value.substring(0, separator)));
+            } catch (NumberFormatException e) {
+                throw new PreconditionFailedException(String.format("Некорректный заголовок If-Match: %s", ifMatch));
+            }
+        }
+        return versions;
+    }
+
+    public static void checkVersion(Set<Long> expectedVersions, long actualVersion) {
+        if (!expectedVersions.isEmpty() && !expectedVersions.contains(actualVersion)) {
+            throw new PreconditionFailedException(String.format(
+                    "Ресурс изменился: текущая версия %d, ожидалась %s", actualVersion, expectedVersions));
+        }
+    }
+}
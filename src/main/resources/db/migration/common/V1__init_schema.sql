@@ -1,5 +1,3 @@
-DROP TABLE IF EXISTS users, items, bookings, requests, comments;
-
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
     email VARCHAR(255) NOT NULL,
@@ -36,5 +34,4 @@ CREATE TABLE IF NOT EXISTS comments (
     author_id BIGINT NOT NULL REFERENCES users(id),
     item_id BIGINT NOT NULL REFERENCES items(id),
     date_of_creation DATE NOT NULL
-)
-
+);
@@ -0,0 +1,15 @@
+-- bookings of a booker: ALL, WAITING/REJECTED, FUTURE, CURRENT (keyset on start_date, id)
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, id DESC);
+-- bookings of a booker: PAST (keyset on end_date, id)
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_status_end ON bookings (booker_id, status, end_date DESC, id DESC);
+-- comment permission check: findByBooker_IdAndItem_Id
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_item ON bookings (booker_id, item_id);
+
+-- bookings of an item / of an owner's items (joined through items.owner_id)
+CREATE INDEX IF NOT EXISTS ix_bookings_item_start ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_start ON bookings (item_id, status, start_date);
+
+CREATE INDEX IF NOT EXISTS ix_items_owner ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS ix_comments_item ON comments (item_id);
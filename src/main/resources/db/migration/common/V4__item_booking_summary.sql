@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+    item_id BIGINT PRIMARY KEY REFERENCES items(id),
+    booking_count BIGINT NOT NULL DEFAULT 0,
+    approved_count BIGINT NOT NULL DEFAULT 0,
+    comment_count BIGINT NOT NULL DEFAULT 0
+);
+
+-- backfill for items created before the summary existed
+INSERT INTO item_booking_summary (item_id, booking_count, approved_count, comment_count)
+SELECT i.id,
+       (SELECT COUNT(*) FROM bookings b WHERE b.item_id = i.id),
+       (SELECT COUNT(*) FROM bookings b WHERE b.item_id = i.id AND b.status = 'APPROVED'),
+       (SELECT COUNT(*) FROM comments c WHERE c.item_id = i.id)
+FROM items i
+WHERE NOT EXISTS (SELECT 1 FROM item_booking_summary s WHERE s.item_id = i.id);
@@ -0,0 +1,3 @@
+-- newest comments of an item (keyset on id) and per-item top-N
+CREATE INDEX IF NOT EXISTS ix_comments_item_id ON comments (item_id, id DESC);
+DROP INDEX IF EXISTS ix_comments_item;
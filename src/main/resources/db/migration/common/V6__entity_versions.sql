@@ -0,0 +1,8 @@
+-- optimistic locking (@Version) and ETags
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- bumped on every change of the summary: item detail ETags depend on bookings and comments too
+ALTER TABLE item_booking_summary ADD COLUMN IF NOT EXISTS revision BIGINT NOT NULL DEFAULT 0;
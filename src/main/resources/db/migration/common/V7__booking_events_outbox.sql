@@ -0,0 +1,20 @@
+-- outbox of booking status changes, written in the same transaction as the booking.
+-- increment 1: an event written after another one's commit always gets a larger id,
+-- so events of one booking are ordered by id.
+CREATE SEQUENCE IF NOT EXISTS booking_events_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS booking_events (
+    id BIGINT PRIMARY KEY,
+    booking_id BIGINT NOT NULL,
+    item_id BIGINT NOT NULL,
+    booker_id BIGINT NOT NULL,
+    owner_id BIGINT NOT NULL,
+    status VARCHAR NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+-- replay for a reconnecting subscriber (Last-Event-ID)
+CREATE INDEX IF NOT EXISTS ix_booking_events_booker ON booking_events (booker_id, id);
+CREATE INDEX IF NOT EXISTS ix_booking_events_owner ON booking_events (owner_id, id);
+-- retention cleanup
+CREATE INDEX IF NOT EXISTS ix_booking_events_created ON booking_events (created_at);
@@ -0,0 +1,11 @@
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS created TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS request_id BIGINT;
+ALTER TABLE items ADD CONSTRAINT fk_items_request FOREIGN KEY (request_id) REFERENCES requests(id);
+
+-- own requests of a user, newest first
+CREATE INDEX IF NOT EXISTS ix_requests_requestor ON requests (requestor_id, created DESC, id DESC);
+-- feed of all requests (keyset on created, id)
+CREATE INDEX IF NOT EXISTS ix_requests_created ON requests (created DESC, id DESC);
+-- items offered in response to requests
+CREATE INDEX IF NOT EXISTS ix_items_request ON items (request_id);
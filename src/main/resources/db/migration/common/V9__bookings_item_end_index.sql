@@ -0,0 +1,2 @@
+-- availability calendar: findBusyIntervals (item_id, status in APPROVED/WAITING, end_date > since)
+CREATE INDEX IF NOT EXISTS ix_bookings_item_status_end ON bookings (item_id, status, end_date);
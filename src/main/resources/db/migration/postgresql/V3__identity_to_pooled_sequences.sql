@@ -0,0 +1,21 @@
+-- Идентификаторы выдаются Hibernate из последовательностей блоками по 50 (pooled optimizer),
+-- что позволяет объединять вставки в JDBC-пакеты.
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE requests ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE items ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE comments ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE users_seq INCREMENT BY 50;
+CREATE SEQUENCE requests_seq INCREMENT BY 50;
+CREATE SEQUENCE items_seq INCREMENT BY 50;
+CREATE SEQUENCE bookings_seq INCREMENT BY 50;
+CREATE SEQUENCE comments_seq INCREMENT BY 50;
+
+-- pooled optimizer считает значение последовательности верхней границей блока,
+-- поэтому первый блок должен начинаться сразу после существующих id.
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) FROM users) + 50, false);
+SELECT setval('requests_seq', (SELECT COALESCE(MAX(id), 0) FROM requests) + 50, false);
+SELECT setval('items_seq', (SELECT COALESCE(MAX(id), 0) FROM items) + 50, false);
+SELECT setval('bookings_seq', (SELECT COALESCE(MAX(id), 0) FROM bookings) + 50, false);
+SELECT setval('comments_seq', (SELECT COALESCE(MAX(id), 0) FROM comments) + 50, false);
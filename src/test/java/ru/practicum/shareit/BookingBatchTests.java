@@ -0,0 +1,74 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.api.JpaItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.api.JpaUserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Некорректные элементы пакетных запросов отклоняются по отдельности и не доходят до загрузки по id.
+ */
+@SpringBootTest(properties = "shareit.rate-limit.enabled=false")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class BookingBatchTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private JpaUserRepository userRepository;
+	@Autowired
+	private JpaItemRepository itemRepository;
+
+	@Test
+	void invalidBatchElementsAreRejectedIndividually() throws Exception {
+		User owner = user("owner");
+		User booker = user("booker");
+		Item item = itemRepository.save(Item.builder().name("Дрель").description("Дрель").available(true)
+				.owner(owner).build());
+		LocalDateTime start = LocalDateTime.now().plusDays(1);
+		String dates = "\"start\":\"" + start + "\",\"end\":\"" + start.plusDays(1) + "\"";
+
+		mockMvc.perform(post("/bookings/batch")
+						.header("X-Sharer-User-Id", booker.getId())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("[null, {" + dates + "}, {\"itemId\":" + item.getId() + "," + dates + "}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].error").value("Элемент пакета не может быть пустым"))
+				.andExpect(jsonPath("$[1].error").exists())
+				.andExpect(jsonPath("$[2].booking.item.id").value(item.getId()));
+	}
+
+	@Test
+	void nullIdInStatusBatchIsRejectedIndividually() throws Exception {
+		User owner = user("owner");
+
+		mockMvc.perform(patch("/bookings/owner/batch")
+						.header("X-Sharer-User-Id", owner.getId())
+						.param("approved", "true")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("[null, 0]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].error").value("Нужно указать id бронирования"))
+				.andExpect(jsonPath("$[1].error").value("Бронирование с id 0 не найдено"));
+	}
+
+	private User user(String name) {
+		return userRepository.save(User.builder().name(name).email(UUID.randomUUID() + "@mail.ru").build());
+	}
+}
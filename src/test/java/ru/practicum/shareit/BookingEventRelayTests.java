@@ -0,0 +1,139 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.api.BookingEventRepository;
+import ru.practicum.shareit.booking.event.BookingEventRelay;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.item.api.JpaItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.api.JpaUserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Переподключение к /bookings/events с Last-Event-ID: догрузка из БД и живые события relay вместе дают
+ * каждое событие после Last-Event-ID ровно один раз. Опрос relay по расписанию отложен, тест вызывает
+ * его сам.
+ */
+@SpringBootTest(properties = {
+		"shareit.rate-limit.enabled=false",
+		"shareit.booking-events.poll-interval=PT1H"})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class BookingEventRelayTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private BookingEventRelay relay;
+	@Autowired
+	private BookingEventRepository bookingEventRepository;
+	@Autowired
+	private JpaUserRepository userRepository;
+	@Autowired
+	private JpaItemRepository itemRepository;
+
+	private User booker;
+	private Item item;
+	private LocalDateTime start;
+
+	@BeforeEach
+	void setUp() {
+		User owner = user("owner");
+		booker = user("booker");
+		item = itemRepository.save(Item.builder().name("Дрель").description("Дрель").available(true)
+				.owner(owner).build());
+		start = LocalDateTime.now().plusDays(1);
+		relay.relay();
+	}
+
+	@Test
+	void replayAndLiveEventsDeliverEachEventOnce() throws Exception {
+		book();
+		relay.relay();
+		long lastEventId = lastEventId();
+		// события, зафиксированные после последнего опроса relay: их отдаст и догрузка, и следующий опрос
+		book();
+		book();
+
+		MvcResult subscription = mockMvc.perform(get("/bookings/events")
+						.header("X-Sharer-User-Id", booker.getId())
+						.header("Last-Event-ID", lastEventId))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		book();
+		relay.relay();
+
+		assertEquals(eventIdsAfter(lastEventId), sentEventIds(subscription));
+	}
+
+	@Test
+	void reconnectWithLastSentIdReceivesOnlyNewEvents() throws Exception {
+		book();
+		MvcResult first = mockMvc.perform(get("/bookings/events").header("X-Sharer-User-Id", booker.getId()))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		relay.relay();
+		List<Long> firstIds = sentEventIds(first);
+		long lastEventId = firstIds.get(firstIds.size() - 1);
+		book();
+
+		MvcResult second = mockMvc.perform(get("/bookings/events")
+						.header("X-Sharer-User-Id", booker.getId())
+						.header("Last-Event-ID", lastEventId))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		relay.relay();
+
+		assertEquals(eventIdsAfter(lastEventId), sentEventIds(second));
+	}
+
+	private void book() throws Exception {
+		mockMvc.perform(post("/bookings")
+						.header("X-Sharer-User-Id", booker.getId())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"itemId\":" + item.getId() + ",\"start\":\"" + start + "\",\"end\":\""
+								+ start.plusHours(1) + "\"}"))
+				.andExpect(status().isCreated());
+		start = start.plusHours(2);
+	}
+
+	private long lastEventId() {
+		return bookingEventRepository.findTopByOrderByIdDesc().map(BookingEvent::getId).orElseThrow();
+	}
+
+	private List<Long> eventIdsAfter(long lastEventId) {
+		return bookingEventRepository.findForUser(booker.getId(), lastEventId, Limit.unlimited()).stream()
+				.map(BookingEvent::getId)
+				.toList();
+	}
+
+	private static List<Long> sentEventIds(MvcResult subscription) throws Exception {
+		return subscription.getResponse().getContentAsString().lines()
+				.filter(line -> line.startsWith("id:"))
+				.map(line -> Long.parseLong(line.substring("id:".length()).trim()))
+				.toList();
+	}
+
+	private User user(String name) {
+		return userRepository.save(User.builder().name(name).email(UUID.randomUUID() + "@mail.ru").build());
+	}
+}
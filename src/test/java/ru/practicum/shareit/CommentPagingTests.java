@@ -0,0 +1,137 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.item.api.CommentRepository;
+import ru.practicum.shareit.item.api.JpaItemRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.api.JpaUserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Комментарии вещи отдаются страницами по ключу id от новых к старым: страницы идут подряд,
+ * без повторов и пропусков, а в ответе по вещи - первые COMMENTS_PREVIEW из них.
+ */
+@SpringBootTest(properties = "shareit.rate-limit.enabled=false")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class CommentPagingTests {
+	private static final int COMMENTS = 25;
+	private static final int PAGE_SIZE = 10;
+	private static final int COMMENTS_PREVIEW = 10;
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private JpaUserRepository userRepository;
+	@Autowired
+	private JpaItemRepository itemRepository;
+	@Autowired
+	private CommentRepository commentRepository;
+
+	private Item item;
+	private List<Long> newestFirst;
+
+	@BeforeEach
+	void setUp() {
+		User owner = user("owner");
+		User author = user("author");
+		item = item(owner);
+		Item other = item(owner);
+		newestFirst = new ArrayList<>();
+		for (int i = 0; i < COMMENTS; i++) {
+			newestFirst.add(comment(item, author, "Комментарий " + i).getId());
+			comment(other, author, "Чужой комментарий " + i);
+		}
+		newestFirst.sort(Comparator.reverseOrder());
+	}
+
+	@Test
+	void commentPagesFollowKeysetOrder() throws Exception {
+		List<Long> paged = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			MockHttpServletRequestBuilder request = get("/items/{id}/comments", item.getId())
+					.param("size", String.valueOf(PAGE_SIZE));
+			if (cursor != null) {
+				request.param("cursor", cursor);
+			}
+			MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+			for (JsonNode comment : objectMapper.readTree(result.getResponse().getContentAsString())) {
+				assertEquals(item.getId(), comment.get("itemId").asLong());
+				paged.add(comment.get("id").asLong());
+			}
+			cursor = result.getResponse().getHeader("X-Next-Cursor");
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(newestFirst, paged);
+		assertEquals((COMMENTS + PAGE_SIZE - 1) / PAGE_SIZE, pages);
+	}
+
+	@Test
+	void lastPageHasNoNextCursor() throws Exception {
+		long oldest = newestFirst.get(COMMENTS - 1);
+
+		MvcResult result = mockMvc.perform(get("/items/{id}/comments", item.getId())
+						.param("cursor", String.valueOf(oldest))
+						.param("size", String.valueOf(PAGE_SIZE)))
+				.andExpect(status().isOk())
+				.andReturn();
+
+		assertEquals(0, objectMapper.readTree(result.getResponse().getContentAsString()).size());
+		assertNull(result.getResponse().getHeader("X-Next-Cursor"));
+	}
+
+	@Test
+	void itemResponseEmbedsNewestComments() throws Exception {
+		MvcResult result = mockMvc.perform(get("/items/{id}", item.getId()))
+				.andExpect(status().isOk())
+				.andReturn();
+
+		List<Long> embedded = new ArrayList<>();
+		objectMapper.readTree(result.getResponse().getContentAsString()).get("comments")
+				.forEach(comment -> embedded.add(comment.get("id").asLong()));
+		assertEquals(newestFirst.subList(0, COMMENTS_PREVIEW), embedded);
+	}
+
+	private User user(String name) {
+		return userRepository.save(User.builder().name(name).email(UUID.randomUUID() + "@mail.ru").build());
+	}
+
+	private Item item(User owner) {
+		return itemRepository.save(Item.builder().name("Дрель").description("Дрель").available(true)
+				.owner(owner).build());
+	}
+
+	private Comment comment(Item item, User author, String text) {
+		Comment comment = new Comment();
+		comment.setText(text);
+		comment.setItem(item);
+		comment.setAuthor(author);
+		return commentRepository.save(comment);
+	}
+}
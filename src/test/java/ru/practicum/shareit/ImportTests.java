@@ -0,0 +1,129 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.api.ItemService;
+import ru.practicum.shareit.item.api.JpaItemRepository;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.user.api.JpaUserRepository;
+import ru.practicum.shareit.user.api.UserService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Импорт ограничен MAX_IMPORT_SIZE записей за запрос; 100 000 строк загружаются пакетами этого размера
+ * за отведенное время. Лимит частоты запросов отключен, чтобы мерить сам импорт.
+ */
+@SpringBootTest(properties = "shareit.rate-limit.enabled=false")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class ImportTests {
+	private static final int ROWS = 100_000;
+	private static final Duration TIME_LIMIT = Duration.ofMinutes(2);
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private JpaUserRepository userRepository;
+	@Autowired
+	private JpaItemRepository itemRepository;
+
+	@Test
+	void oversizedItemImportIsRejected() throws Exception {
+		User owner = owner();
+
+		mockMvc.perform(post("/items/import")
+						.header("X-Sharer-User-Id", owner.getId())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(items(0, ItemService.MAX_IMPORT_SIZE + 1))))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void oversizedUserImportIsRejected() throws Exception {
+		mockMvc.perform(post("/users/import")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(objectMapper.writeValueAsString(users(0, UserService.MAX_IMPORT_SIZE + 1))))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void hundredThousandItemsAreImportedInBatches() {
+		User owner = owner();
+		long before = itemRepository.count();
+
+		assertTimeout(TIME_LIMIT, () -> {
+			for (int from = 0; from < ROWS; from += ItemService.MAX_IMPORT_SIZE) {
+				mockMvc.perform(post("/items/import")
+								.header("X-Sharer-User-Id", owner.getId())
+								.contentType(MediaType.APPLICATION_JSON)
+								.content(objectMapper.writeValueAsString(items(from, ItemService.MAX_IMPORT_SIZE))))
+						.andExpect(status().isCreated());
+			}
+		});
+
+		assertEquals(before + ROWS, itemRepository.count());
+	}
+
+	@Test
+	void hundredThousandUsersAreImportedInBatches() {
+		long before = userRepository.count();
+
+		assertTimeout(TIME_LIMIT, () -> {
+			for (int from = 0; from < ROWS; from += UserService.MAX_IMPORT_SIZE) {
+				mockMvc.perform(post("/users/import")
+								.contentType(MediaType.APPLICATION_JSON)
+								.content(objectMapper.writeValueAsString(users(from, UserService.MAX_IMPORT_SIZE))))
+						.andExpect(status().isCreated());
+			}
+		});
+
+		assertEquals(before + ROWS, userRepository.count());
+	}
+
+	private User owner() {
+		return userRepository.save(User.builder().name("owner").email(UUID.randomUUID() + "@mail.ru").build());
+	}
+
+	private static List<ItemCreateDto> items(int from, int count) {
+		return IntStream.range(from, from + count)
+				.mapToObj(i -> {
+					ItemCreateDto item = new ItemCreateDto();
+					item.setName("Вещь " + i);
+					item.setDescription("Описание " + i);
+					item.setAvailable(true);
+					return item;
+				})
+				.toList();
+	}
+
+	private static List<UserCreateDto> users(int from, int count) {
+		String prefix = UUID.randomUUID().toString();
+		return IntStream.range(from, from + count)
+				.mapToObj(i -> {
+					UserCreateDto user = new UserCreateDto();
+					user.setName("Пользователь " + i);
+					user.setEmail(prefix + "-" + i + "@mail.ru");
+					return user;
+				})
+				.toList();
+	}
+}
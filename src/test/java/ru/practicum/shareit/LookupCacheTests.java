@@ -0,0 +1,121 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.item.api.ItemService;
+import ru.practicum.shareit.item.api.JpaItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.api.JpaUserRepository;
+import ru.practicum.shareit.user.api.UserService;
+import ru.practicum.shareit.user.dto.UserUpdateDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Кэши users и items: каждый вызов findById получает свой экземпляр, собранный из снимка, а снимок
+ * удаляется только после фиксации изменения.
+ */
+@SpringBootTest(properties = "shareit.rate-limit.enabled=false")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class LookupCacheTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private ItemService itemService;
+	@Autowired
+	private JpaUserRepository userRepository;
+	@Autowired
+	private JpaItemRepository itemRepository;
+	@Autowired
+	private CacheManager cacheManager;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private User owner;
+	private Item item;
+
+	@BeforeEach
+	void setUp() {
+		owner = user("owner");
+		item = itemRepository.save(Item.builder().name("Дрель").description("Дрель").available(true)
+				.owner(owner).build());
+	}
+
+	@Test
+	void cachedLookupsReturnOwnInstances() {
+		User user = userService.findById(owner.getId());
+		User cachedUser = userService.findById(owner.getId());
+		Item cachedItem = itemService.findById(item.getId());
+		cachedUser.setName("Изменен");
+		itemService.findById(item.getId()).setName("Изменена");
+
+		assertNotSame(user, cachedUser);
+		assertEquals("owner", userService.findById(owner.getId()).getName());
+		assertNotSame(cachedItem, itemService.findById(item.getId()));
+		assertEquals("Дрель", itemService.findById(item.getId()).getName());
+		assertEquals(owner.getId(), itemService.findById(item.getId()).getOwner().getId());
+	}
+
+	@Test
+	void bookingIsCreatedFromCachedUserAndItem() throws Exception {
+		User booker = user("booker");
+		userService.findById(booker.getId());
+		itemService.findById(item.getId());
+		LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+		mockMvc.perform(post("/bookings")
+						.header("X-Sharer-User-Id", booker.getId())
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"itemId\":" + item.getId() + ",\"start\":\"" + start + "\",\"end\":\""
+								+ start.plusDays(1) + "\"}"))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.item.name").value("Дрель"))
+				.andExpect(jsonPath("$.booker.id").value(booker.getId()));
+	}
+
+	@Test
+	void userUpdateEvictsSnapshotAfterCommit() {
+		Cache users = cacheManager.getCache(CacheConfig.USERS);
+		userService.findById(owner.getId());
+		UserUpdateDto update = new UserUpdateDto();
+		update.setName("Переименован");
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			userService.update(update, owner.getId(), Set.of());
+			assertNotNull(users.get(owner.getId()));
+		});
+
+		assertNull(users.get(owner.getId()));
+		assertEquals("Переименован", userService.findById(owner.getId()).getName());
+	}
+
+	private User user(String name) {
+		return userRepository.save(User.builder().name(name).email(UUID.randomUUID() + "@mail.ru").build());
+	}
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * EXPLAIN на H2 (схема из миграций Flyway) для keyset-запросов списков бронирований и запросов сводки вещи:
+ * ни одна таблица не читается полным просмотром, выборка идет по индексу. SQL повторяет запросы
+ * BookingRepository, JpaItemRepository и CommentRepository с подставленными значениями параметров.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase
+class QueryPlanTests {
+	private static final String NOW = "TIMESTAMP '2024-06-01 12:00:00'";
+	private static final String KEYSET_START = "AND (b.start_date < " + NOW + " OR (b.start_date = " + NOW
+			+ " AND b.id < 100)) ORDER BY b.start_date DESC, b.id DESC LIMIT 20";
+	private static final String KEYSET_END = "AND (b.end_date < " + NOW + " OR (b.end_date = " + NOW
+			+ " AND b.id < 100)) ORDER BY b.end_date DESC, b.id DESC LIMIT 20";
+	private static final String OWNER_BOOKINGS = "SELECT b.* FROM bookings b JOIN items i ON i.id = b.item_id "
+			+ "WHERE i.owner_id = 1 ";
+
+	private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.\\w+\\.tableScan");
+	private static final Pattern INDEX_LOOKUP = Pattern.compile("/\\* PUBLIC\\.\\w+: ");
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	static Stream<Arguments> queries() {
+		return Stream.of(
+				Arguments.of("findAllByBooker",
+						"SELECT b.* FROM bookings b WHERE b.booker_id = 1 " + KEYSET_START),
+				Arguments.of("findByBookerAndStatus",
+						"SELECT b.* FROM bookings b WHERE b.booker_id = 1 AND b.status = 'WAITING' " + KEYSET_START),
+				Arguments.of("findPastByBooker",
+						"SELECT b.* FROM bookings b WHERE b.booker_id = 1 AND b.status = 'APPROVED' "
+								+ "AND b.end_date < " + NOW + " " + KEYSET_END),
+				Arguments.of("findFutureByBooker",
+						"SELECT b.* FROM bookings b WHERE b.booker_id = 1 AND b.status = 'APPROVED' "
+								+ "AND b.start_date > " + NOW + " " + KEYSET_START),
+				Arguments.of("findAllByItemOwner", OWNER_BOOKINGS + KEYSET_START),
+				Arguments.of("findByOwnerAndStatus", OWNER_BOOKINGS + "AND b.status = 'WAITING' " + KEYSET_START),
+				Arguments.of("findPastByItemOwner", OWNER_BOOKINGS + "AND b.status = 'APPROVED' "
+						+ "AND b.end_date < " + NOW + " " + KEYSET_END),
+				Arguments.of("findLastApprovedByItems",
+						"SELECT b.* FROM bookings b WHERE b.item_id IN (1, 2, 3) AND b.status = 'APPROVED' "
+								+ "AND b.start_date < " + NOW + " AND b.end_date > " + NOW + " "
+								+ "AND b.end_date = (SELECT MAX(o.end_date) FROM bookings o WHERE o.item_id = b.item_id "
+								+ "AND o.status = 'APPROVED' AND o.start_date < " + NOW + " AND o.end_date > " + NOW + ")"),
+				Arguments.of("findNextApprovedByItems",
+						"SELECT b.* FROM bookings b WHERE b.item_id IN (1, 2, 3) AND b.status = 'APPROVED' "
+								+ "AND b.start_date > " + NOW + " "
+								+ "AND b.start_date = (SELECT MIN(o.start_date) FROM bookings o "
+								+ "WHERE o.item_id = b.item_id AND o.status = 'APPROVED' AND o.start_date > " + NOW + ")"),
+				Arguments.of("findBusyIntervals",
+						"SELECT b.start_date, b.end_date FROM bookings b WHERE b.item_id = 1 "
+								+ "AND b.status IN ('APPROVED', 'WAITING') AND b.end_date > " + NOW
+								+ " ORDER BY b.start_date"),
+				Arguments.of("findAllByOwner_id", "SELECT i.* FROM items i WHERE i.owner_id = 1"),
+				Arguments.of("findPageByItem",
+						"SELECT c.id, c.text, u.name FROM comments c JOIN users u ON u.id = c.author_id "
+								+ "WHERE c.item_id = 1 AND c.id < 100 ORDER BY c.id DESC LIMIT 10"),
+				Arguments.of("findNewestIdsByItems",
+						"SELECT t.id FROM (SELECT c.id, ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.id DESC) "
+								+ "AS rn FROM comments c WHERE c.item_id IN (1, 2, 3)) t WHERE t.rn <= 10")
+		);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("queries")
+	void queryUsesIndex(String query, String sql) {
+		String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+
+		assertFalse(TABLE_SCAN.matcher(plan).find(), () -> query + " читает таблицу целиком:\n" + plan);
+		assertTrue(INDEX_LOOKUP.matcher(plan).find(), () -> query + " не использует индекс:\n" + plan);
+	}
+}
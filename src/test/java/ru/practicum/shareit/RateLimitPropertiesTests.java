@@ -0,0 +1,45 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.ratelimit.RateLimitProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Бюджеты с неположительным размером или скоростью пополнения отклоняются при запуске, а не делением
+ * на ноль в TokenBucket.
+ */
+class RateLimitPropertiesTests {
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withUserConfiguration(PropertiesConfig.class);
+
+	@Test
+	void positiveBudgetsAreAccepted() {
+		contextRunner.withPropertyValues(
+						"shareit.rate-limit.defaults.capacity=1",
+						"shareit.rate-limit.endpoints.export.refill-per-second=0.1")
+				.run(context -> assertThat(context).hasNotFailed());
+	}
+
+	@Test
+	void zeroRefillRateIsRejected() {
+		contextRunner.withPropertyValues("shareit.rate-limit.defaults.refill-per-second=0")
+				.run(context -> assertThat(context).hasFailed());
+	}
+
+	@Test
+	void negativeEndpointCapacityIsRejected() {
+		contextRunner.withPropertyValues(
+						"shareit.rate-limit.endpoints.export.paths=/bookings/export",
+						"shareit.rate-limit.endpoints.export.capacity=-1")
+				.run(context -> assertThat(context).hasFailed());
+	}
+
+	@Configuration
+	@EnableConfigurationProperties(RateLimitProperties.class)
+	static class PropertiesConfig {
+	}
+}
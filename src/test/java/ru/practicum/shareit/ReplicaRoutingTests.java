@@ -0,0 +1,130 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.api.JpaUserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Маршрутизация ReplicaDataSourceConfig на двух разных базах H2: основная мигрируется Flyway приложения,
+ * реплика - вручную до старта контекста. Данные в базы пишутся напрямую через JDBC, поэтому видно,
+ * какая из них обслужила транзакцию.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=" + ReplicaRoutingTests.PRIMARY_URL,
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"shareit.datasource.replica.url=" + ReplicaRoutingTests.REPLICA_URL,
+		"shareit.rate-limit.enabled=false"})
+class ReplicaRoutingTests {
+	static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+	static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private JpaUserRepository userRepository;
+
+	@BeforeAll
+	static void migrateReplica() {
+		Flyway.configure()
+				.dataSource(REPLICA_URL, "sa", "")
+				.locations("classpath:db/migration/common", "classpath:db/migration/h2")
+				.load()
+				.migrate();
+	}
+
+	@Test
+	void readOnlyTransactionReadsFromReplica() throws SQLException {
+		String email = insertUser(REPLICA_URL);
+
+		assertEquals(1, findByEmail(email, true).size());
+		assertEquals(0, findByEmail(email, false).size());
+	}
+
+	@Test
+	void writeTransactionGoesToPrimary() throws SQLException {
+		String email = saveUser();
+
+		assertTrue(exists(PRIMARY_URL, email));
+		assertFalse(exists(REPLICA_URL, email));
+	}
+
+	@Test
+	void writeAfterReadOnlyTransactionInOneEntityManagerGoesToPrimary() throws SQLException {
+		String replicaEmail = insertUser(REPLICA_URL);
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+		String email;
+		try {
+			assertEquals(1, findByEmail(replicaEmail, true).size());
+			email = saveUser();
+		} finally {
+			TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+			entityManager.close();
+		}
+
+		assertTrue(exists(PRIMARY_URL, email));
+		assertFalse(exists(REPLICA_URL, email));
+	}
+
+	private List<User> findByEmail(String email, boolean readOnly) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(readOnly);
+		return transactionTemplate.execute(status -> userRepository.findAllByEmailIn(List.of(email)));
+	}
+
+	private String saveUser() {
+		String email = UUID.randomUUID() + "@mail.ru";
+		new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+				userRepository.save(User.builder().name("user").email(email).build()));
+		return email;
+	}
+
+	private static String insertUser(String url) throws SQLException {
+		String email = UUID.randomUUID() + "@mail.ru";
+		try (Connection connection = DriverManager.getConnection(url, "sa", "");
+			 PreparedStatement statement = connection.prepareStatement(
+					 "insert into users (id, name, email, version) values (next value for users_seq, ?, ?, 0)")) {
+			statement.setString(1, "user");
+			statement.setString(2, email);
+			statement.executeUpdate();
+		}
+		return email;
+	}
+
+	private static boolean exists(String url, String email) throws SQLException {
+		try (Connection connection = DriverManager.getConnection(url, "sa", "");
+			 PreparedStatement statement = connection.prepareStatement("select count(*) from users where email = ?")) {
+			statement.setString(1, email);
+			try (ResultSet resultSet = statement.executeQuery()) {
+				resultSet.next();
+				return resultSet.getInt(1) > 0;
+			}
+		}
+	}
+}
@@ -0,0 +1,145 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.booking.api.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.api.JpaItemRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.metrics.SqlStatementCounter;
+import ru.practicum.shareit.user.api.JpaUserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Повторные чтения обслуживаются кэшем второго уровня без SQL. Проверяется по статистике регионов
+ * и по счетчику выражений запроса, а не по общему числу выражений: фоновые задачи (relay событий
+ * бронирований) выполняют свои запросы.
+ */
+@SpringBootTest(properties = "shareit.rate-limit.enabled=false")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class SecondLevelCacheTests {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private JpaUserRepository userRepository;
+	@Autowired
+	private JpaItemRepository itemRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private CacheManager cacheManager;
+
+	private Statistics statistics;
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		owner = userRepository.save(User.builder().name("owner").email(UUID.randomUUID() + "@mail.ru").build());
+		itemRepository.saveAll(List.of(item("Дрель"), item("Пила")));
+	}
+
+	@Test
+	void repeatedOwnerItemsQueryIsServedFromCache() {
+		itemRepository.findAllByOwner_id(owner.getId());
+		statistics.clear();
+
+		assertEquals(2, itemRepository.findAllByOwner_id(owner.getId()).size());
+
+		// Hibernate 6 хранит в регионе запроса полное состояние сущностей, регион item при этом не читается
+		CacheRegionStatistics query = statistics.getQueryRegionStatistics("query-items-by-owner");
+		assertEquals(1, query.getHitCount());
+		assertEquals(0, query.getMissCount());
+		assertEquals(0, statistics.getEntityStatistics(Item.class.getName()).getLoadCount());
+	}
+
+	@Test
+	void ownerItemsQueryIsReExecutedAfterItemsChange() {
+		itemRepository.findAllByOwner_id(owner.getId());
+		itemRepository.save(item("Молоток"));
+		statistics.clear();
+
+		assertEquals(3, itemRepository.findAllByOwner_id(owner.getId()).size());
+
+		CacheRegionStatistics query = statistics.getQueryRegionStatistics("query-items-by-owner");
+		assertEquals(0, query.getHitCount());
+		assertEquals(1, query.getMissCount());
+	}
+
+	@Test
+	void userIsLoadedFromCacheInNewSession() {
+		statistics.clear();
+
+		assertEquals(owner.getName(), userRepository.findById(owner.getId()).orElseThrow().getName());
+
+		CacheRegionStatistics users = statistics.getDomainDataRegionStatistics("user");
+		assertEquals(1, users.getHitCount());
+		assertEquals(0, users.getMissCount());
+	}
+
+	@Test
+	void ownerBookingsRunFewerStatementsWithWarmCache() throws Exception {
+		User booker = userRepository.save(User.builder().name("booker").email(UUID.randomUUID() + "@mail.ru").build());
+		LocalDateTime now = LocalDateTime.now();
+		for (Item item : itemRepository.findAllByOwner_id(owner.getId())) {
+			Booking booking = new Booking();
+			booking.setItem(item);
+			booking.setBooker(booker);
+			booking.setStart(now.plusDays(1));
+			booking.setEnd(now.plusDays(2));
+			booking.setStatus(BookingStatus.WAITING);
+			bookingRepository.save(booking);
+		}
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		clearSpringCaches();
+
+		int cold = ownerBookingsStatements();
+		// без кэша Spring владелец берется из кэша второго уровня: остается только запрос страницы бронирований
+		clearSpringCaches();
+		int warm = ownerBookingsStatements();
+
+		assertTrue(warm < cold, () -> "холодный кэш: " + cold + ", прогретый: " + warm);
+		assertEquals(1, warm);
+	}
+
+	private int ownerBookingsStatements() throws Exception {
+		MvcResult result = mockMvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", owner.getId()))
+				.andExpect(status().isOk())
+				.andReturn();
+		return ((AtomicInteger) result.getRequest().getAttribute(SqlStatementCounter.class.getName())).get();
+	}
+
+	private void clearSpringCaches() {
+		cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+	}
+
+	private Item item(String name) {
+		return Item.builder().name(name).description(name).available(true).owner(owner).build();
+	}
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.booking.api.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.api.CommentRepository;
+import ru.practicum.shareit.item.api.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.api.JpaItemRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.metrics.SqlStatementCounter;
+import ru.practicum.shareit.user.api.JpaUserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число SQL-выражений на запрос списка не зависит от числа элементов в ответе. Считается счетчиком
+ * запроса из RequestMetricsFilter, а не общей статистикой Hibernate: фоновые задачи выполняют свои запросы.
+ * Перед каждым замером кэши Spring и второго уровня очищаются, чтобы кэш не скрыл N+1.
+ */
+@SpringBootTest(properties = "shareit.rate-limit.enabled=false")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+class StatementCountTests {
+	private static final int FEW = 1;
+	private static final int MANY = 25;
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private CacheManager cacheManager;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	@Autowired
+	private JpaUserRepository userRepository;
+	@Autowired
+	private JpaItemRepository itemRepository;
+	@Autowired
+	private BookingRepository bookingRepository;
+	@Autowired
+	private CommentRepository commentRepository;
+	@Autowired
+	private ItemBookingSummaryRepository summaryRepository;
+
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		owner = user("owner");
+	}
+
+	@Test
+	void ownerBookingsStatementCountDoesNotGrowWithBookings() throws Exception {
+		addItems(FEW);
+		int few = statements(get("/bookings/owner").header("X-Sharer-User-Id", owner.getId()), FEW * 2);
+
+		addItems(MANY - FEW);
+		int many = statements(get("/bookings/owner").header("X-Sharer-User-Id", owner.getId()), MANY * 2);
+
+		assertEquals(few, many);
+	}
+
+	@Test
+	void ownerItemsStatementCountDoesNotGrowWithItems() throws Exception {
+		addItems(FEW);
+		int few = statements(get("/items").header("X-Sharer-User-Id", owner.getId()), FEW);
+
+		addItems(MANY - FEW);
+		int many = statements(get("/items").header("X-Sharer-User-Id", owner.getId()), MANY);
+
+		assertEquals(few, many);
+	}
+
+	private int statements(MockHttpServletRequestBuilder request, int expectedSize) throws Exception {
+		cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		MvcResult result = mockMvc.perform(request)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(expectedSize))
+				.andReturn();
+		return ((AtomicInteger) result.getRequest().getAttribute(SqlStatementCounter.class.getName())).get();
+	}
+
+	/**
+	 * Каждая вещь - со своим арендатором, прошедшим и будущим одобренными бронированиями и комментарием,
+	 * чтобы ленивая загрузка любой связи дала лишние выражения.
+	 */
+	private void addItems(int count) {
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 0; i < count; i++) {
+			Item item = itemRepository.save(Item.builder().name("Дрель").description("Дрель").available(true)
+					.owner(owner).build());
+			summaryRepository.save(new ItemBookingSummary(item.getId()));
+			User booker = user("booker");
+			bookingRepository.save(booking(item, booker, now.minusDays(2), now.minusDays(1)));
+			bookingRepository.save(booking(item, booker, now.plusDays(1), now.plusDays(2)));
+			Comment comment = new Comment();
+			comment.setText("Отличная дрель");
+			comment.setItem(item);
+			comment.setAuthor(booker);
+			commentRepository.save(comment);
+		}
+	}
+
+	private User user(String name) {
+		return userRepository.save(User.builder().name(name).email(UUID.randomUUID() + "@mail.ru").build());
+	}
+
+	private static Booking booking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+		Booking booking = new Booking();
+		booking.setItem(item);
+		booking.setBooker(booker);
+		booking.setStart(start);
+		booking.setEnd(end);
+		booking.setStatus(BookingStatus.APPROVED);
+		return booking;
+	}
+}
@@ -0,0 +1,176 @@
+package ru.practicum.shareit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Нагрузочное сравнение режима виртуальных потоков (spring.threads.virtual.enabled=true, с bulkhead перед
+ * пулом JDBC) с пулом потоков Tomcat по умолчанию. Приложение поднимается дважды на H2 со случайным портом,
+ * CLIENTS одновременных клиентов чередуют GET /items/{id} и GET /bookings/owner; в лог пишутся пропускная
+ * способность, p50 и p99 задержки, число ответов 503 от bulkhead и прочих ошибок. Без ошибок должен пройти
+ * только режим виртуальных потоков: у пула Tomcat нет bulkhead, и при нехватке соединений запросы получают 500
+ * по таймауту Hikari - это и сравнивается. Долгий, поэтому запускается только явно:
+ * <pre>
+ * mvn test -Dtest=VirtualThreadLoadTests -Dshareit.load-test=true
+ * </pre>
+ * Число клиентов и запросов на клиента меняется свойствами shareit.load-test.clients и
+ * shareit.load-test.requests (по умолчанию 1000 и 20).
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "shareit.load-test", matches = "true")
+class VirtualThreadLoadTests {
+	private static final int ITEMS = 20;
+	private static final int CLIENTS = Integer.getInteger("shareit.load-test.clients", 1000);
+	private static final int REQUESTS_PER_CLIENT = Integer.getInteger("shareit.load-test.requests", 20);
+	private static final int WARMUP_REQUESTS_PER_CLIENT = 2;
+
+	private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void virtualThreadsAgainstDefaultTomcatPool() throws Exception {
+		LoadResult platform = run(false);
+		LoadResult virtual = run(true);
+
+		log.info("Режим      запросов  запр/с    p50, мс  p99, мс  503    ошибки");
+		log.info("{}", platform);
+		log.info("{}", virtual);
+		assertEquals(0, virtual.errors(), "ошибки в режиме виртуальных потоков");
+	}
+
+	private LoadResult run(boolean virtualThreads) throws Exception {
+		// аргументы командной строки, а не properties(): те задают лишь значения по умолчанию,
+		// и application.properties перекрыл бы адрес БД
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class).run(
+				"--server.port=0",
+				"--spring.threads.virtual.enabled=" + virtualThreads,
+				"--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+				"--spring.datasource.driver-class-name=org.h2.Driver",
+				"--spring.datasource.username=sa",
+				"--spring.datasource.password=",
+				"--shareit.rate-limit.enabled=false",
+				"--logging.level.ru.practicum.shareit.booking.BookingController=WARN",
+				"--logging.level.ru.practicum.shareit.item.ItemController=WARN",
+				"--logging.level.ru.practicum.shareit.user.UserController=WARN",
+				"--logging.level.org.springframework.transaction.interceptor=WARN",
+				"--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")) {
+			String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			Fixture fixture = seed(baseUrl);
+			load(baseUrl, fixture, virtualThreads, WARMUP_REQUESTS_PER_CLIENT);
+			return load(baseUrl, fixture, virtualThreads, REQUESTS_PER_CLIENT);
+		}
+	}
+
+	private LoadResult load(String baseUrl, Fixture fixture, boolean virtualThreads, int requestsPerClient)
+			throws InterruptedException {
+		long[] latencies = new long[CLIENTS * requestsPerClient];
+		AtomicInteger completed = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		AtomicInteger errors = new AtomicInteger();
+		long startNanos = System.nanoTime();
+		try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int client = 0; client < CLIENTS; client++) {
+				int clientId = client;
+				clients.submit(() -> {
+					for (int i = 0; i < requestsPerClient; i++) {
+						HttpRequest request = i % 2 == 0
+								? HttpRequest.newBuilder(URI.create(baseUrl + "/items/"
+										+ fixture.itemIds()[(clientId + i) % ITEMS])).GET().build()
+								: HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/owner?size=20"))
+										.header("X-Sharer-User-Id", String.valueOf(fixture.ownerId())).GET().build();
+						long requestStart = System.nanoTime();
+						try {
+							int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+							if (status == 503) {
+								rejected.incrementAndGet();
+							} else if (status != 200) {
+								errors.incrementAndGet();
+							}
+						} catch (IOException e) {
+							errors.incrementAndGet();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							return;
+						}
+						latencies[completed.getAndIncrement()] = System.nanoTime() - requestStart;
+					}
+				});
+			}
+		}
+		long elapsedNanos = System.nanoTime() - startNanos;
+		int count = completed.get();
+		long[] sorted = Arrays.copyOf(latencies, count);
+		Arrays.sort(sorted);
+		return new LoadResult(virtualThreads, count, count * 1_000_000_000.0 / elapsedNanos,
+				percentileMs(sorted, 0.50), percentileMs(sorted, 0.99), rejected.get(), errors.get());
+	}
+
+	private Fixture seed(String baseUrl) throws IOException, InterruptedException {
+		long ownerId = createUser(baseUrl, "owner");
+		long bookerId = createUser(baseUrl, "booker");
+		long[] itemIds = new long[ITEMS];
+		LocalDateTime start = LocalDateTime.now().plusDays(1);
+		for (int i = 0; i < ITEMS; i++) {
+			itemIds[i] = post(baseUrl + "/items", ownerId,
+					"{\"name\":\"Дрель " + i + "\",\"description\":\"Дрель\",\"available\":true}");
+			post(baseUrl + "/bookings", bookerId, "{\"itemId\":" + itemIds[i] + ",\"start\":\"" + start.plusHours(i)
+					+ "\",\"end\":\"" + start.plusHours(i + 1) + "\"}");
+		}
+		return new Fixture(ownerId, itemIds);
+	}
+
+	private long createUser(String baseUrl, String name) throws IOException, InterruptedException {
+		return post(baseUrl + "/users", null,
+				"{\"name\":\"" + name + "\",\"email\":\"" + UUID.randomUUID() + "@mail.ru\"}");
+	}
+
+	private long post(String url, Long userId, String body) throws IOException, InterruptedException {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body));
+		if (userId != null) {
+			request.header("X-Sharer-User-Id", String.valueOf(userId));
+		}
+		HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+		assertEquals(201, response.statusCode(), response.body());
+		return objectMapper.readTree(response.body()).get("id").asLong();
+	}
+
+	private static long percentileMs(long[] sortedNanos, double percentile) {
+		if (sortedNanos.length == 0) {
+			return 0;
+		}
+		int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+		return sortedNanos[Math.max(index, 0)] / 1_000_000;
+	}
+
+	private record Fixture(long ownerId, long[] itemIds) {
+	}
+
+	private record LoadResult(boolean virtualThreads, int requests, double throughput, long p50Ms, long p99Ms,
+							  int rejected, int errors) {
+		@Override
+		public String toString() {
+			return String.format("%-10s %-9d %-9.0f %-8d %-8d %-6d %d", virtualThreads ? "virtual" : "platform",
+					requests, throughput, p50Ms, p99Ms, rejected, errors);
+		}
+	}
+}